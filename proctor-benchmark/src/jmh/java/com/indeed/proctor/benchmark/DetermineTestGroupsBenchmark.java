@@ -0,0 +1,124 @@
+package com.indeed.proctor.benchmark;
+
+import com.google.common.collect.ImmutableMap;
+import com.indeed.proctor.common.ForceGroupsOptions;
+import com.indeed.proctor.common.Identifiers;
+import com.indeed.proctor.common.Proctor;
+import com.indeed.proctor.common.ProctorLoadResult;
+import com.indeed.proctor.common.ProctorResult;
+import com.indeed.proctor.common.RuleEvaluator;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import com.indeed.proctor.common.model.TestType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Proctor#determineTestGroups(Identifiers, Map, ForceGroupsOptions, Collection)}
+ * on synthetic test matrices, see {@link SyntheticTestMatrix}.
+ *
+ * <p>Throughput mode reports requests per second, sample time mode reports latency percentiles,
+ * and the gc profiler configured in build.gradle reports allocated bytes per request.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DetermineTestGroupsBenchmark {
+    /** Number of tests in the filter, each pulling in its dependencies */
+    private static final int FILTERED_TESTS = 20;
+
+    /** Distinct users and contexts cycled through, so results are not all the same */
+    private static final int NUM_REQUESTS = 4096;
+
+    @State(Scope.Benchmark)
+    public static class MatrixState {
+        @Param({"100", "1000", "10000"})
+        public int numTests;
+
+        /** whether determineTestGroups is called with a testNameFilter */
+        @Param({"false", "true"})
+        public boolean filtered;
+
+        Proctor proctor;
+        Collection<String> testNameFilter;
+        Identifiers[] identifiers;
+        Map<String, Object>[] contexts;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setUp() {
+            final TestMatrixArtifact artifact = SyntheticTestMatrix.create(numTests, 42);
+            proctor =
+                    Proctor.construct(
+                            artifact,
+                            ProctorLoadResult.emptyResult(),
+                            RuleEvaluator.defaultFunctionMapperBuilder().build());
+
+            if (filtered) {
+                final List<String> names = new ArrayList<>();
+                // tests with index 5 modulo 8 depend on two other tests
+                for (int i = 5; (i < numTests) && (names.size() < FILTERED_TESTS); i += 8) {
+                    names.add(SyntheticTestMatrix.testName(i));
+                }
+                testNameFilter = names;
+            } else {
+                testNameFilter = Collections.emptyList();
+            }
+
+            final Random random = new Random(42);
+            identifiers = new Identifiers[NUM_REQUESTS];
+            contexts = new Map[NUM_REQUESTS];
+            for (int i = 0; i < NUM_REQUESTS; i++) {
+                identifiers[i] =
+                        new Identifiers(
+                                ImmutableMap.of(
+                                        TestType.ANONYMOUS_USER,
+                                        "user" + Long.toHexString(random.nextLong()),
+                                        TestType.AUTHENTICATED_USER,
+                                        String.valueOf(random.nextInt(1_000_000))),
+                                true);
+                contexts[i] = SyntheticTestMatrix.createContext(random);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RequestState {
+        private int next;
+
+        int nextRequest() {
+            next = (next + 1) % NUM_REQUESTS;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public ProctorResult determineTestGroups(
+            final MatrixState matrixState, final RequestState requestState) {
+        final int request = requestState.nextRequest();
+        return matrixState.proctor.determineTestGroups(
+                matrixState.identifiers[request],
+                matrixState.contexts[request],
+                ForceGroupsOptions.empty(),
+                matrixState.testNameFilter);
+    }
+}
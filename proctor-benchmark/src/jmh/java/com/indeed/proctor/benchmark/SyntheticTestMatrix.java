@@ -0,0 +1,185 @@
+package com.indeed.proctor.benchmark;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.indeed.proctor.common.model.Allocation;
+import com.indeed.proctor.common.model.Audit;
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.Payload;
+import com.indeed.proctor.common.model.PayloadExperimentConfig;
+import com.indeed.proctor.common.model.Range;
+import com.indeed.proctor.common.model.TestBucket;
+import com.indeed.proctor.common.model.TestDefinition;
+import com.indeed.proctor.common.model.TestDependency;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import com.indeed.proctor.common.model.TestType;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds test matrices of arbitrary size that resemble a production matrix: standard, random and
+ * unitless tests of several test types, chains of dependent tests, payload experiments and rules
+ * using constants and rule functions.
+ */
+final class SyntheticTestMatrix {
+    static final List<String> COUNTRIES =
+            ImmutableList.of("US", "GB", "JP", "DE", "FR", "CA", "IN", "BR", "AU", "NL");
+
+    private static final List<String> TEST_RULES =
+            ImmutableList.of(
+                    "${proctor:contains(COUNTRIES, country)}",
+                    "${lang == 'en' || lang == 'ja'}",
+                    "${!loggedIn || proctor:contains(COUNTRIES, country)}",
+                    "");
+
+    private static final List<String> ALLOCATION_RULES =
+            ImmutableList.of(
+                    "${proctor:versionInRange(proctor:version(appVersion), '1.0.0', '9.0.0')"
+                            + " && loggedIn}",
+                    "${fn:startsWith(userAgent, 'Mozilla') && country == 'US'}",
+                    "${proctor:matches(userAgent, '.*iPhone.*') || platform == 'ios'}",
+                    "${lang == 'en' && (platform == 'android' || platform == 'ios')}");
+
+    private static final List<TestBucket> BUCKETS =
+            ImmutableList.of(
+                    new TestBucket("inactive", -1, "inactive"),
+                    new TestBucket("control", 0, "control"),
+                    new TestBucket("active", 1, "active"));
+
+    private SyntheticTestMatrix() {}
+
+    /** @return a matrix with the given number of tests, the same for the same seed */
+    @Nonnull
+    static TestMatrixArtifact create(final int numTests, final long seed) {
+        final Random random = new Random(seed);
+        final Map<String, ConsumableTestDefinition> tests = new LinkedHashMap<>();
+        for (int i = 0; i < numTests; i++) {
+            tests.put(testName(i), createTestDefinition(i, random));
+        }
+
+        final Audit audit = new Audit();
+        audit.setVersion("1");
+        audit.setUpdated(0);
+        audit.setUpdatedBy("benchmark");
+
+        final TestMatrixArtifact artifact = new TestMatrixArtifact();
+        artifact.setAudit(audit);
+        artifact.setTests(tests);
+        return artifact;
+    }
+
+    /** @return context variables used by the rules in generated tests */
+    @Nonnull
+    static Map<String, Object> createContext(final Random random) {
+        final Map<String, Object> context = new LinkedHashMap<>();
+        // some countries are not in the COUNTRIES constant
+        final int country = random.nextInt(COUNTRIES.size() + 2);
+        context.put("country", (country < COUNTRIES.size()) ? COUNTRIES.get(country) : "XX");
+        context.put("lang", random.nextBoolean() ? "en" : "ja");
+        context.put("loggedIn", random.nextBoolean());
+        context.put("appVersion", "1." + random.nextInt(20) + ".0");
+        context.put("platform", random.nextBoolean() ? "ios" : "android");
+        context.put(
+                "userAgent",
+                random.nextBoolean()
+                        ? "Mozilla/5.0 (iPhone; CPU iPhone OS 16_0 like Mac OS X)"
+                        : "Mozilla/5.0 (Windows NT 10.0; Win64; x64)");
+        return context;
+    }
+
+    static String testName(final int index) {
+        return "synthetic" + index + "_tst";
+    }
+
+    /**
+     * Kinds of tests by index modulo 8: 0 random, 1 unitless, 2 account, 3 to 7 user tests where 4
+     * and 5 depend on the previous test, and 6 is a payload experiment.
+     */
+    private static ConsumableTestDefinition createTestDefinition(
+            final int index, final Random random) {
+        final int kind = index % 8;
+        final TestDefinition.Builder builder =
+                TestDefinition.builder()
+                        .setVersion(String.valueOf(index))
+                        .setSalt(testName(index))
+                        .setRule(TEST_RULES.get(random.nextInt(TEST_RULES.size())))
+                        .setConstants(ImmutableMap.of("COUNTRIES", COUNTRIES))
+                        .setDescription("synthetic test " + index);
+
+        final List<Allocation> allocations = new ArrayList<>();
+        switch (kind) {
+            case 0:
+                builder.setTestType(TestType.RANDOM);
+                break;
+            case 1:
+                builder.setTestType(TestType.ANONYMOUS_USER).setEnableUnitlessAllocations(true);
+                allocations.add(
+                        new Allocation(
+                                "${missingExperimentalUnit}",
+                                ImmutableList.of(
+                                        new Range(-1, 0.0), new Range(0, 0.0), new Range(1, 1.0)),
+                                "#U" + index));
+                break;
+            case 2:
+                builder.setTestType(TestType.AUTHENTICATED_USER);
+                break;
+            case 4:
+            case 5:
+                builder.setTestType(TestType.ANONYMOUS_USER)
+                        .setDependsOn(new TestDependency(testName(index - 1), 1));
+                break;
+            default:
+                builder.setTestType(TestType.ANONYMOUS_USER);
+        }
+
+        if (kind == 6) {
+            builder.setBuckets(createPayloadBuckets(index))
+                    .setPayloadExperimentConfig(
+                            PayloadExperimentConfig.builder()
+                                    .priority(String.valueOf(index))
+                                    .namespaces(Collections.singletonList("ns" + (index % 3)))
+                                    .build());
+        } else {
+            builder.setBuckets(BUCKETS);
+        }
+
+        final int numRuleAllocations = 1 + random.nextInt(ALLOCATION_RULES.size());
+        for (int i = 0; i < numRuleAllocations; i++) {
+            allocations.add(
+                    new Allocation(
+                            ALLOCATION_RULES.get((index + i) % ALLOCATION_RULES.size()),
+                            createRanges(random),
+                            "#" + (char) ('A' + i) + index));
+        }
+        // catch-all allocation
+        allocations.add(new Allocation(null, createRanges(random), "#Z" + index));
+        builder.setAllocations(allocations);
+
+        return ConsumableTestDefinition.fromTestDefinition(builder.build());
+    }
+
+    private static List<Range> createRanges(final Random random) {
+        final double active = random.nextInt(11) / 10.0;
+        return ImmutableList.of(
+                new Range(-1, 0.0), new Range(0, 1.0 - active), new Range(1, active));
+    }
+
+    private static List<TestBucket> createPayloadBuckets(final int index) {
+        final List<TestBucket> buckets = new ArrayList<>();
+        for (final TestBucket bucket : BUCKETS) {
+            final ObjectNode json = JsonNodeFactory.instance.objectNode();
+            json.put("property" + (index % 20), bucket.getName());
+            json.put("weight" + (index % 7), bucket.getValue() * 0.5);
+            buckets.add(TestBucket.builder().from(bucket).payload(new Payload(json)).build());
+        }
+        return buckets;
+    }
+}
@@ -153,7 +153,7 @@ public class GitLocalProctorBuilder extends ProctorBuilder {
                                     : new FileWriter(matrixFile),
                             arguments.getAuthor(),
                             arguments.getVersion())
-                    .execute();
+                    .execute(arguments);
         } catch (Exception e) {
             LOGGER.error(
                     "Failed to generates proctor artifact from " + arguments.getInputGitUrl(), e);
@@ -124,7 +124,7 @@ public class LocalProctorBuilder extends ProctorBuilder {
                                                     arguments.getFilename())),
                             arguments.getAuthor(),
                             arguments.getVersion())
-                    .execute();
+                    .execute(arguments);
         } catch (final Exception e) {
             LOGGER.error("Failed to generates proctor artifact from " + arguments.getInputdir(), e);
             System.exit(1);
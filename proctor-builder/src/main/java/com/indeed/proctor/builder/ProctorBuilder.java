@@ -1,13 +1,21 @@
 package com.indeed.proctor.builder;
 
+import com.indeed.proctor.common.BinaryTestMatrix;
 import com.indeed.proctor.common.IncompatibleTestMatrixException;
 import com.indeed.proctor.store.ProctorReader;
 import com.indeed.proctor.store.StoreException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 
 public class ProctorBuilder {
 
@@ -17,6 +25,7 @@ public class ProctorBuilder {
     private final Writer outputSink;
     private final String author;
     private String version;
+    @Nullable private OutputStream binaryOutputSink;
 
     public ProctorBuilder(final ProctorReader proctorReader, final Writer outputSink) {
         this(proctorReader, outputSink, null);
@@ -38,7 +47,45 @@ public class ProctorBuilder {
         this.version = version;
     }
 
+    /** Also writes the artifact in the binary format of {@link BinaryTestMatrix} */
+    public void setBinaryOutputSink(@Nullable final OutputStream binaryOutputSink) {
+        this.binaryOutputSink = binaryOutputSink;
+    }
+
     public void execute() throws StoreException, IOException, IncompatibleTestMatrixException {
-        ProctorBuilderUtils.generateArtifact(proctorReader, outputSink, author, version);
+        ProctorBuilderUtils.generateArtifact(
+                proctorReader, outputSink, binaryOutputSink, author, version);
+    }
+
+    /** Executes, also writing the binary artifact file if requested in arguments */
+    void execute(final ProctorBuilderArgs arguments)
+            throws StoreException, IOException, IncompatibleTestMatrixException {
+        if (arguments.getBinaryFilename() == null) {
+            execute();
+            return;
+        }
+        if ("-".equals(arguments.getOutputdir())) {
+            throw new IllegalArgumentException("binary-filename requires an output directory");
+        }
+        final File binaryFile = new File(arguments.getOutputdir(), arguments.getBinaryFilename());
+        // written next to the file and then renamed, as loaders map the file into memory and
+        // would fail on reading a partially written file
+        final File temporaryFile = new File(binaryFile.getPath() + ".tmp");
+        boolean written = false;
+        try {
+            try (OutputStream binaryOutput =
+                    new BufferedOutputStream(new FileOutputStream(temporaryFile))) {
+                setBinaryOutputSink(binaryOutput);
+                execute();
+            } finally {
+                setBinaryOutputSink(null);
+            }
+            Files.move(temporaryFile.toPath(), binaryFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+        } finally {
+            if (!written && !temporaryFile.delete() && temporaryFile.exists()) {
+                LOGGER.warn("Unable to delete temporary file " + temporaryFile);
+            }
+        }
     }
 }
@@ -14,6 +14,7 @@ class ProctorBuilderArgs {
 
     private String outputdir;
     private String filename;
+    private String binaryFilename = null;
 
     // Artifact overrides
     private String author = null;
@@ -36,6 +37,14 @@ class ProctorBuilderArgs {
                         .withArgName("filename")
                         .withDescription("The filename to use. default=proctor-tests-matrix.json")
                         .create("f"));
+        options.addOption(
+                OptionBuilder.hasArg(true)
+                        .withLongOpt("binary-filename")
+                        .withArgName("binary filename")
+                        .withDescription(
+                                "If set, also write the test matrix in binary format to this file"
+                                        + " in the output directory")
+                        .create());
 
         options.addOption(
                 OptionBuilder.hasArg(true)
@@ -69,6 +78,7 @@ class ProctorBuilderArgs {
     protected void extract(final CommandLine results) {
         this.outputdir = results.getOptionValue("output", "-");
         this.filename = results.getOptionValue("filename", "proctor-tests-matrix.json");
+        this.binaryFilename = results.getOptionValue("binary-filename");
 
         if (results.hasOption("author")) {
             this.author = results.getOptionValue("author");
@@ -92,6 +102,10 @@ class ProctorBuilderArgs {
         return filename;
     }
 
+    public String getBinaryFilename() {
+        return binaryFilename;
+    }
+
     public String getAuthor() {
         return author;
     }
@@ -3,6 +3,7 @@ package com.indeed.proctor.builder;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectWriter;
 import com.google.common.base.Strings;
+import com.indeed.proctor.common.BinaryTestMatrix;
 import com.indeed.proctor.common.IncompatibleTestMatrixException;
 import com.indeed.proctor.common.ProctorUtils;
 import com.indeed.proctor.common.Serializers;
@@ -13,7 +14,9 @@ import com.indeed.proctor.store.ProctorReader;
 import com.indeed.proctor.store.StoreException;
 import org.apache.commons.lang3.StringUtils;
 
+import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Writer;
 import java.util.Map;
 
@@ -31,6 +34,17 @@ class ProctorBuilderUtils {
             final String authorOverride,
             final String versionOverride)
             throws IOException, IncompatibleTestMatrixException, StoreException {
+        generateArtifact(proctorPersister, outputSink, null, authorOverride, versionOverride);
+    }
+
+    /** @param binaryOutputSink if not null, also receives the artifact in binary format */
+    static void generateArtifact(
+            final ProctorReader proctorPersister,
+            final Writer outputSink,
+            @Nullable final OutputStream binaryOutputSink,
+            final String authorOverride,
+            final String versionOverride)
+            throws IOException, IncompatibleTestMatrixException, StoreException {
         final TestMatrixVersion currentTestMatrix = proctorPersister.getCurrentTestMatrix();
         if (currentTestMatrix == null) {
             throw new RuntimeException(
@@ -59,5 +73,8 @@ class ProctorBuilderUtils {
                     td.getKey(), matrixSource, td.getValue());
         }
         OBJECT_WRITER.writeValue(outputSink, artifact);
+        if (binaryOutputSink != null) {
+            BinaryTestMatrix.write(artifact, binaryOutputSink);
+        }
     }
 }
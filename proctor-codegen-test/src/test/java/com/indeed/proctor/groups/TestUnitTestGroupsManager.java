@@ -19,6 +19,7 @@ import com.indeed.proctor.common.ProvidedContext;
 import com.indeed.proctor.common.model.TestBucket;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.consumer.logging.TestMarkingObserver;
+import com.indeed.proctor.consumer.logging.TestUsageObserver;
 import com.indeed.util.varexport.VarExporter;
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -36,6 +37,7 @@ import java.util.Map;
 
 import static com.indeed.proctor.groups.UtilMethods.calcBuckets;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -195,6 +197,42 @@ public class TestUnitTestGroupsManager {
         assertNotNull(testUsageObserver.asProctorResult().getBuckets().get("kluj"));
     }
 
+    @Test
+    public void testBucketAccessorMarksUsageOnce() {
+        final Map<String, Integer> usages = Maps.newHashMap();
+        final TestUsageObserver countingObserver =
+                new TestUsageObserver() {
+                    @Override
+                    public void markUsedForToggling(final Collection<String> testNames) {
+                        testNames.forEach(this::markUsedForToggling);
+                    }
+
+                    @Override
+                    public void markUsedForToggling(final String testName) {
+                        usages.merge(testName, 1, Integer::sum);
+                    }
+                };
+        final ProctorResult result =
+                new ProctorResult(
+                        "0",
+                        ImmutableMap.of(
+                                "kluj", new TestBucket("loooj", 3, ""),
+                                // value without bucket enum, e.g. of a bucket added to the matrix
+                                "pimple", new TestBucket("unknown", 99, "")),
+                        Collections.emptyMap());
+        final UnitTestGroups grps = new UnitTestGroups(result, countingObserver);
+
+        assertEquals(UnitTestGroups.Kluj.LOOOJ, grps.getKluj());
+        assertThat(usages).containsEntry("kluj", 1);
+
+        assertThatThrownBy(grps::getPimple).isInstanceOf(NullPointerException.class);
+        assertThat(usages).containsEntry("pimple", 1);
+
+        // tests without bucket are not marked, as before
+        assertEquals(UnitTestGroups.Oop_poop.getFallback(), grps.getOop_poop());
+        assertThat(usages).containsOnlyKeys("kluj", "pimple");
+    }
+
     @Test
     public void testPageBuckets() {
         {
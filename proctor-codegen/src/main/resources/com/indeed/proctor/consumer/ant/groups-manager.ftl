@@ -26,6 +26,8 @@ import com.google.common.base.Supplier;
 @Generated("com.indeed.proctor.consumer.gen.TestGroupsGenerator")
 public class ${mainClassName} extends AbstractGroupsManager {
     private static final Map<String, String> PROVIDED_CONTEXT;
+    /** slot of each provided context variable, in order of the determineBuckets parameters */
+    private static final ContextSlots CONTEXT_SLOTS;
     private static final Set<String> FORCE_PAYLOAD_ALLOWED_TESTS;
     static {
         final Map<String, String> providedContext = new LinkedHashMap<String, String>();
@@ -33,6 +35,7 @@ public class ${mainClassName} extends AbstractGroupsManager {
         providedContext.put("${contextArgumentName}", "${contextArguments[contextArgumentName]}");
         </#list>
         PROVIDED_CONTEXT = Collections.unmodifiableMap(providedContext);
+        CONTEXT_SLOTS = ContextSlots.of(PROVIDED_CONTEXT.keySet());
         final Set<String> forcePayloadTests = new HashSet<String>();
         <#list forcePayloadTests as forcePayloadTestName>
         forcePayloadTests.add("${forcePayloadTestName}");
@@ -60,9 +63,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                     final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -80,9 +83,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                     final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -101,9 +104,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                     final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -117,9 +120,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                     final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -137,9 +140,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                     final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -170,9 +173,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                             final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
@@ -186,9 +189,9 @@ public class ${mainClassName} extends AbstractGroupsManager {
                                             final ${contextArguments[contextArgumentName]?replace('$', '.')} ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>) {</#if>
 </#list>
         <#if contextArguments?has_content>
-        final Map<String, Object> context = new HashMap<String, Object>();
+        final Map<String, Object> context = CONTEXT_SLOTS.newContext(new Object[] {
             <#list contextArguments?keys as contextArgumentName>
-        context.put("${contextArgumentName}", ${contextArgumentName});
+                ${contextArgumentName}<#if contextArgumentName_has_next>,<#else>});</#if>
             </#list>
         <#else>
         final Map<String, Object> context = Collections.emptyMap();
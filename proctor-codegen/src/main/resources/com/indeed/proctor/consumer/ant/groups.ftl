@@ -112,6 +112,20 @@ public class ${mainClassName} extends AbstractGroups {
             return fullName;
         }
 
+        /**
+         * @return the bucket with the value, or null if no bucket has the value
+         */
+        private static @Nullable ${testDef.javaClassName} fromValue(final int value) {
+            switch (value) {
+            <#list testDef.buckets as bucket>
+                case ${bucket.value}:
+                    return ${testDef.javaClassName}.${bucket.enumName};
+            </#list>
+                default:
+                    return null;
+            }
+        }
+
     <#list testDef.buckets as bucket>
         <#if testDef.defaultValue == bucket.value>
         public static ${testDef.javaClassName} getFallback() {
@@ -127,11 +141,11 @@ public class ${mainClassName} extends AbstractGroups {
     <#if testDef.buckets?has_content>
     @Nonnull
     public ${testDef.javaClassName} get${testDef.javaClassName}() {
-        for (final ${testDef.javaClassName} bucket : ${testDef.javaClassName}.values()) {
-            final String testName = Test.${testDef.enumName}.getName();
-            if (isBucketActive(testName, bucket.getValue(), ${testDef.defaultValue})) {
-                return bucket;
-            }
+        // resolving the active bucket once, to mark usage and log exposure once
+        final String testName = Test.${testDef.enumName}.getName();
+        final ${testDef.javaClassName} bucket = ${testDef.javaClassName}.fromValue(getValue(testName, ${testDef.defaultValue}));
+        if (bucket != null) {
+            return bucket;
         }
 
         // Safe to throw NPE here because the code generator ensures that the default value
@@ -0,0 +1,80 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Charsets;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link MD5BucketHasher} with hashing through a new MessageDigest per call, as done by
+ * StandardTestChooser before. Each invocation hashes one identifier for all tests, like one call
+ * of Proctor.determineTestGroups.
+ *
+ * <p>Run with {@code ./gradlew :proctor-common:jmh -PjmhIncludes=MD5BucketHasherBenchmark}, add
+ * {@code -prof gc} through jmh profilers to compare allocation rates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MD5BucketHasherBenchmark {
+    @Param({"100", "2000"})
+    public int numTests;
+
+    private byte[][] salts;
+    private String[] identifiers;
+    private int nextIdentifier;
+
+    @Setup
+    public void setUp() {
+        salts = new byte[numTests][];
+        for (int i = 0; i < numTests; i++) {
+            salts[i] = ("example_test_" + i + "|example_test_" + i).getBytes(Charsets.UTF_8);
+        }
+        identifiers = new String[1024];
+        for (int i = 0; i < identifiers.length; i++) {
+            identifiers[i] = "1ctk" + Long.toHexString(0x1000000000000L + i * 7919L);
+        }
+    }
+
+    private String nextIdentifier() {
+        nextIdentifier = (nextIdentifier + 1) % identifiers.length;
+        return identifiers[nextIdentifier];
+    }
+
+    @Benchmark
+    public int freshMessageDigest() {
+        final String identifier = nextIdentifier();
+        int result = 0;
+        for (final byte[] salt : salts) {
+            final MessageDigest md = ProctorUtils.createMessageDigest();
+            md.update(salt);
+            md.update(identifier.getBytes(Charsets.UTF_8));
+            result ^= MD5BucketHasher.convertToInt(md.digest());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int md5BucketHasher() {
+        final String identifier = nextIdentifier();
+        int result = 0;
+        for (final byte[] salt : salts) {
+            result ^= MD5BucketHasher.hash(salt, identifier);
+        }
+        return result;
+    }
+}
@@ -49,9 +49,13 @@ public abstract class AbstractJsonProctorLoader extends AbstractProctorLoader {
      * referenced tests, which are determined by requiredTests and dynamicFilters, by iterating over
      * entries under the value for "tests".
      *
+     * <p>When "audit" comes before "tests" and has the same version as the last loaded test
+     * matrix, parsing stops without reading "tests".
+     *
      * @param reader
      * @return TestMatrixArtifact with referenced test definitions only
      * @throws IOException
+     * @throws TestMatrixOutdatedException if the audit version is the same as the last loaded one
      */
     @CheckForNull
     protected TestMatrixArtifact loadJsonTestMatrix(@Nonnull final Reader reader)
@@ -76,8 +80,11 @@ public abstract class AbstractJsonProctorLoader extends AbstractProctorLoader {
                                 Preconditions.checkState(
                                         parser.currentToken() == JsonToken.START_OBJECT);
 
-                                testMatrixArtifact.setAudit(
-                                        OBJECT_MAPPER.readValue(parser, Audit.class));
+                                final Audit audit = OBJECT_MAPPER.readValue(parser, Audit.class);
+                                if (isAuditUnchanged(audit)) {
+                                    throw new AuditUnchangedException();
+                                }
+                                testMatrixArtifact.setAudit(audit);
                                 break;
 
                             case TEST_MATRIX_ARTIFACT_JSON_KEY_TESTS:
@@ -102,6 +109,9 @@ public abstract class AbstractJsonProctorLoader extends AbstractProctorLoader {
                     testMatrixArtifact.getTests(), "Field \"tests\" was not found in json");
 
             return testMatrixArtifact;
+        } catch (final AuditUnchangedException e) {
+            throw new TestMatrixOutdatedException(
+                    "Audit of test matrix from " + getSource() + " is unchanged", e);
         } catch (final IOException e) {
             LOGGER.error("Unable to load test matrix from " + getSource(), e);
             throw e;
@@ -150,4 +160,7 @@ public abstract class AbstractJsonProctorLoader extends AbstractProctorLoader {
         // check dynamic filters
         return dynamicFilters.matches(testName, testDefinition);
     }
+
+    /** Thrown to stop parsing from inside a {@link JsonParserUtils.PartialJsonConsumer} */
+    private static class AuditUnchangedException extends IOException {}
 }
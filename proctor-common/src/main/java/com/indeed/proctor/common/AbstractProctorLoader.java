@@ -153,6 +153,12 @@ public abstract class AbstractProctorLoader extends DataLoadingTimerTask
             return null;
         }
 
+        // compare versions before filtering and verifying tests, which is the expensive part
+        final Audit newAudit = testMatrix.getAudit();
+        if (isAuditUnchanged(newAudit)) {
+            return null;
+        }
+
         final Set<String> dynamicTests =
                 dynamicFilters.determineTests(testMatrix.getTests(), requiredTests.keySet());
         exportDynamicTests(dynamicTests);
@@ -186,39 +192,48 @@ public abstract class AbstractProctorLoader extends DataLoadingTimerTask
                                                 testName)));
         loadResult.getDynamicTestErrorMap().forEach(this::logDynamicTests);
 
-        final Audit newAudit = testMatrix.getAudit();
-        if (lastAudit != null) {
-            final Audit audit = Preconditions.checkNotNull(newAudit, "Missing audit");
-            if (lastAudit.getVersion().equals(audit.getVersion())) {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug(
-                            "Not reloading "
-                                    + getSource()
-                                    + " test matrix definition because audit is unchanged: "
-                                    + lastAudit.getVersion()
-                                    + " @ "
-                                    + lastAudit.getUpdated()
-                                    + " by "
-                                    + lastAudit.getUpdatedBy());
-                }
-
-                return null;
-            }
-        }
-
+        // reuses test choosers of unchanged tests from the current proctor
         final Proctor proctor =
                 Proctor.construct(
                         testMatrix,
                         loadResult,
                         functionMapper,
                         identifierValidator,
-                        getProctorResultReporter());
+                        getProctorResultReporter(),
+                        current);
         //  kind of lame to modify lastAudit here but current in load(), but the interface is a
         // little constraining
         setLastAudit(newAudit);
         return proctor;
     }
 
+    /**
+     * @return true if the given audit has the same version as the last loaded test matrix, in which
+     *     case there is no need to reload
+     */
+    boolean isAuditUnchanged(@Nullable final Audit audit) {
+        final Audit lastAudit = this.lastAudit;
+        if (lastAudit == null) {
+            return false;
+        }
+        final Audit newAudit = Preconditions.checkNotNull(audit, "Missing audit");
+        if (!lastAudit.getVersion().equals(newAudit.getVersion())) {
+            return false;
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(
+                    "Not reloading "
+                            + getSource()
+                            + " test matrix definition because audit is unchanged: "
+                            + lastAudit.getVersion()
+                            + " @ "
+                            + lastAudit.getUpdated()
+                            + " by "
+                            + lastAudit.getUpdatedBy());
+        }
+        return true;
+    }
+
     /**
      * user can override this function to provide a Proctor Result Reporter for monitoring
      * determining Groups of proctor tests
@@ -0,0 +1,89 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Preconditions;
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.el.FunctionMapper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Support class for loading a test matrix artifact from a file written by {@link
+ * BinaryTestMatrix}. The file is memory-mapped and only test definitions referenced by required
+ * tests and dynamic filters are decoded.
+ */
+public class BinaryProctorLoader extends AbstractProctorLoader {
+    @Nonnull private final File inputFile;
+
+    public BinaryProctorLoader(
+            @Nonnull final ProctorSpecification specification,
+            @Nonnull final String inputFile,
+            @Nonnull final FunctionMapper functionMapper) {
+        this(specification, new File(inputFile), functionMapper);
+    }
+
+    public BinaryProctorLoader(
+            @Nonnull final ProctorSpecification specification,
+            @Nonnull final File inputFile,
+            @Nonnull final FunctionMapper functionMapper) {
+        super(BinaryProctorLoader.class, specification, functionMapper);
+        this.inputFile = inputFile;
+    }
+
+    @Nonnull
+    @Override
+    protected String getSource() {
+        return inputFile.getAbsolutePath();
+    }
+
+    @CheckForNull
+    @Override
+    protected TestMatrixArtifact loadTestMatrix()
+            throws IOException, MissingTestMatrixException, TestMatrixOutdatedException {
+        if (!inputFile.exists()) {
+            throw new MissingTestMatrixException("File " + inputFile + " does not exist");
+        }
+        if (!inputFile.canRead()) {
+            throw new MissingTestMatrixException("Cannot read input file " + inputFile);
+        }
+
+        final BinaryTestMatrix matrix;
+        try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after closing the channel
+            matrix =
+                    BinaryTestMatrix.read(
+                            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        if (isAuditUnchanged(matrix.getAudit())) {
+            throw new TestMatrixOutdatedException(
+                    "Audit of test matrix from " + getSource() + " is unchanged");
+        }
+
+        // use HashMap instead of ImmutableMap.Builder because null might be put
+        final Map<String, ConsumableTestDefinition> tests = new HashMap<>();
+        final boolean hasDynamicFilters = !dynamicFilters.asCollection().isEmpty();
+        for (final String testName : matrix.getTestNames()) {
+            if (Preconditions.checkNotNull(requiredTests).containsKey(testName)) {
+                tests.put(testName, matrix.getTest(testName));
+            } else if (hasDynamicFilters) {
+                // dynamic filters need the definition
+                final ConsumableTestDefinition testDefinition = matrix.getTest(testName);
+                if ((testDefinition != null) && dynamicFilters.matches(testName, testDefinition)) {
+                    tests.put(testName, testDefinition);
+                }
+            }
+        }
+
+        final TestMatrixArtifact artifact = new TestMatrixArtifact();
+        artifact.setAudit(matrix.getAudit());
+        artifact.setTests(tests);
+        return artifact;
+    }
+}
@@ -0,0 +1,175 @@
+package com.indeed.proctor.common;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.common.base.Charsets;
+import com.indeed.proctor.common.model.Audit;
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact binary representation of a {@link TestMatrixArtifact}, indexed by test name so that
+ * single test definitions can be decoded without reading the others. JSON stays the canonical
+ * format; this is an optional output of the builder for consumers loading large test matrices.
+ *
+ * <p>Layout, all integers big-endian:
+ *
+ * <pre>
+ * int magic, int format version
+ * int audit length, audit
+ * int number of tests
+ * for each test: int name length, utf-8 name, int offset in data section, int length
+ * data section: test definitions, a length of -1 for null definitions
+ * </pre>
+ *
+ * Audit and test definitions are encoded in Smile, the binary counterpart of JSON in Jackson.
+ */
+public final class BinaryTestMatrix {
+    private static final int MAGIC = 0x50524342; // "PRCB"
+    private static final int FORMAT_VERSION = 1;
+    private static final int NULL_LENGTH = -1;
+
+    private static final ObjectMapper OBJECT_MAPPER = createObjectMapper();
+
+    @Nonnull private final ByteBuffer buffer;
+    @Nonnull private final Audit audit;
+    // test name -> {offset, length}
+    @Nonnull private final Map<String, int[]> index;
+
+    private BinaryTestMatrix(
+            @Nonnull final ByteBuffer buffer,
+            @Nonnull final Audit audit,
+            @Nonnull final Map<String, int[]> index) {
+        this.buffer = buffer;
+        this.audit = audit;
+        this.index = index;
+    }
+
+    /** Writes the artifact in binary format, without closing the output stream */
+    public static void write(
+            @Nonnull final TestMatrixArtifact artifact, @Nonnull final OutputStream outputStream)
+            throws IOException {
+        final DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        writeBytes(out, OBJECT_MAPPER.writeValueAsBytes(artifact.getAudit()));
+
+        final Map<String, ConsumableTestDefinition> tests = artifact.getTests();
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        out.writeInt(tests.size());
+        for (final Map.Entry<String, ConsumableTestDefinition> entry : tests.entrySet()) {
+            writeBytes(out, entry.getKey().getBytes(Charsets.UTF_8));
+            out.writeInt(data.size());
+            if (entry.getValue() == null) {
+                out.writeInt(NULL_LENGTH);
+            } else {
+                final byte[] definition = OBJECT_MAPPER.writeValueAsBytes(entry.getValue());
+                out.writeInt(definition.length);
+                data.write(definition);
+            }
+        }
+        data.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * Reads audit and index of test names. Test definitions are decoded on demand from the
+     * buffer, which must not be modified while this is in use.
+     *
+     * @throws IOException if the buffer is not a supported binary test matrix
+     */
+    @Nonnull
+    public static BinaryTestMatrix read(@Nonnull final ByteBuffer byteBuffer) throws IOException {
+        final ByteBuffer buffer = byteBuffer.duplicate();
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a binary test matrix");
+            }
+            final int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException(
+                        "Unsupported binary test matrix format version " + formatVersion);
+            }
+            final int auditLength = buffer.getInt();
+            final Audit audit = OBJECT_MAPPER.readValue(slice(buffer, auditLength), Audit.class);
+            buffer.position(buffer.position() + auditLength);
+
+            final int numTests = buffer.getInt();
+            final Map<String, int[]> index = new LinkedHashMap<>();
+            for (int i = 0; i < numTests; i++) {
+                final byte[] name = new byte[buffer.getInt()];
+                buffer.get(name);
+                index.put(
+                        new String(name, Charsets.UTF_8),
+                        new int[] {buffer.getInt(), buffer.getInt()});
+            }
+            return new BinaryTestMatrix(buffer.slice(), audit, index);
+        } catch (final BufferUnderflowException
+                | IllegalArgumentException
+                | NegativeArraySizeException e) {
+            throw new IOException("Corrupt binary test matrix", e);
+        }
+    }
+
+    @Nonnull
+    public Audit getAudit() {
+        return audit;
+    }
+
+    /** @return names of all tests in the order they were written */
+    @Nonnull
+    public Set<String> getTestNames() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /** @return the decoded test definition, null if it is missing or null in the matrix */
+    @CheckForNull
+    public ConsumableTestDefinition getTest(@Nonnull final String testName) throws IOException {
+        final int[] entry = index.get(testName);
+        if ((entry == null) || (entry[1] == NULL_LENGTH)) {
+            return null;
+        }
+        final ByteBuffer data = buffer.duplicate();
+        try {
+            data.position(entry[0]);
+            return OBJECT_MAPPER.readValue(slice(data, entry[1]), ConsumableTestDefinition.class);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Corrupt binary test matrix entry for " + testName, e);
+        }
+    }
+
+    private static void writeBytes(@Nonnull final DataOutputStream out, @Nonnull final byte[] bytes)
+            throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** @return stream of the given length from the current position, not moving the buffer */
+    private static ByteBufferBackedInputStream slice(
+            @Nonnull final ByteBuffer buffer, final int length) {
+        final ByteBuffer slice = buffer.slice();
+        slice.limit(length);
+        return new ByteBufferBackedInputStream(slice);
+    }
+
+    private static ObjectMapper createObjectMapper() {
+        final ObjectMapper mapper = new ObjectMapper(new SmileFactory());
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return mapper;
+    }
+}
@@ -0,0 +1,69 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fixed assignment of context variable names to slot indexes, created once for the provided context
+ * of a specification, e.g. by generated groups managers.
+ *
+ * <p>Contexts created by {@link #newContext(Object[])} store variable values in an array instead
+ * of building a map per request, and let {@link Proctor#determineTestGroups} resolve rule variables
+ * by slot without wrapping each value in advance.
+ */
+public final class ContextSlots {
+    @Nonnull private final String[] names;
+    @Nonnull private final Map<String, Integer> slots;
+
+    private ContextSlots(@Nonnull final String[] names) {
+        this.names = names;
+        this.slots = new HashMap<>(names.length * 2);
+        for (int i = 0; i < names.length; i++) {
+            Preconditions.checkArgument(
+                    slots.put(names[i], i) == null, "Duplicate context variable %s", names[i]);
+        }
+    }
+
+    /** @param names context variable names, in order of the values passed to newContext */
+    @Nonnull
+    public static ContextSlots of(@Nonnull final Collection<String> names) {
+        return new ContextSlots(names.toArray(new String[0]));
+    }
+
+    /**
+     * Not varargs, so that the value of a single array variable is not taken as the values.
+     *
+     * @param values values of all context variables, in order of the names of these slots
+     * @return context holding a copy of the given values
+     */
+    @Nonnull
+    public SlotContext newContext(@Nonnull final Object[] values) {
+        Preconditions.checkArgument(
+                values.length == names.length,
+                "Expected %s context values but got %s",
+                names.length,
+                values.length);
+        return new SlotContext(this, values);
+    }
+
+    /** @return number of slots */
+    public int size() {
+        return names.length;
+    }
+
+    /** @return slot of the variable, or -1 if the variable has no slot */
+    public int indexOf(@Nonnull final Object name) {
+        final Integer slot = slots.get(name);
+        return (slot == null) ? -1 : slot;
+    }
+
+    /** @return name of the variable in the slot */
+    @Nonnull
+    public String getName(final int slot) {
+        return names[slot];
+    }
+}
@@ -1,23 +1,58 @@
 package com.indeed.proctor.common;
 
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.indeed.proctor.common.model.TestMatrixArtifact;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.el.FunctionMapper;
+import java.io.ByteArrayInputStream;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Support class for loading a test matrix artifact from a JSON file
  *
+ * <p>The file is not parsed again while its modification time and size are unchanged, or when its
+ * content has the same checksum as the last loaded file. With {@link #startWatching(long)}, the
+ * test matrix is reloaded as soon as the file is modified or replaced instead of waiting for the
+ * next scheduled load.
+ *
  * @author ketan
  */
 public class FileProctorLoader extends AbstractJsonProctorLoader {
+    private static final Logger LOGGER = LogManager.getLogger(FileProctorLoader.class);
+
+    /**
+     * writes within this time after a modification may not change the modification time, so that
+     * files modified this recently are compared by content
+     */
+    private static final long MODIFICATION_TIME_RESOLUTION_MILLIS = 2000;
+
     @Nonnull private final File inputFile;
 
+    // state of the last loaded file
+    @Nullable private FileState loadedState;
+    // state of the file read in the current load, remembered only once loading succeeds
+    @Nullable private FileState pendingState;
+
+    @Nullable private WatchService watchService;
+
     public FileProctorLoader(
             @Nonnull final ProctorSpecification specification,
             @Nonnull final String inputFile,
@@ -49,7 +84,157 @@ public class FileProctorLoader extends AbstractJsonProctorLoader {
         if (!inputFile.canRead()) {
             throw new MissingTestMatrixException("Cannot read input file " + inputFile);
         }
-        final Reader reader = new FileReader(inputFile);
-        return loadJsonTestMatrix(reader);
+        // checked before reading, so that writes while reading are detected by the next load
+        final long checkedTime = System.currentTimeMillis();
+        final long lastModified = inputFile.lastModified();
+        final FileState loaded = loadedState;
+        if ((loaded != null) && loaded.isUnmodified(lastModified, inputFile.length())) {
+            pendingState = loaded;
+            throw new TestMatrixOutdatedException("File " + inputFile + " is not modified");
+        }
+
+        final byte[] content = Files.readAllBytes(inputFile.toPath());
+        final HashCode contentHash = Hashing.murmur3_128().hashBytes(content);
+        pendingState = new FileState(lastModified, content.length, checkedTime, contentHash);
+        if ((loaded != null) && loaded.contentHash.equals(contentHash)) {
+            throw new TestMatrixOutdatedException("Content of file " + inputFile + " is unchanged");
+        }
+        // same charset as FileReader
+        return loadJsonTestMatrix(
+                new InputStreamReader(new ByteArrayInputStream(content), Charset.defaultCharset()));
+    }
+
+    /** synchronized, as a watching thread and the scheduled timer may load concurrently */
+    @Override
+    public synchronized boolean load() {
+        return super.load();
+    }
+
+    @CheckForNull
+    @Override
+    public synchronized Proctor doLoad() throws IOException, MissingTestMatrixException {
+        pendingState = null;
+        final Proctor proctor = super.doLoad();
+        // not remembered when loading fails, so that the next load reads the file again
+        loadedState = pendingState;
+        return proctor;
+    }
+
+    /**
+     * Starts a daemon thread reloading the test matrix when the file is modified or replaced, e.g.
+     * by renaming another file to it. Reloads wait until no further events arrived for the debounce
+     * time, so that a file written in several steps is loaded once.
+     *
+     * <p>The loader should still be scheduled as usual, as a safety net in case events are lost or
+     * the directory can no longer be watched.
+     *
+     * @param debounceMillis time without further events before reloading
+     */
+    public synchronized void startWatching(final long debounceMillis) throws IOException {
+        Preconditions.checkState(watchService == null, "Already watching %s", inputFile);
+        final Path file = inputFile.getAbsoluteFile().toPath();
+        final Path directory = file.getParent();
+        final WatchService service = directory.getFileSystem().newWatchService();
+        // renaming to the file is reported as creation
+        directory.register(
+                service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        final Thread thread =
+                new Thread(
+                        () -> watch(service, file.getFileName(), debounceMillis),
+                        "FileProctorLoader-watch-" + file.getFileName());
+        thread.setDaemon(true);
+        thread.start();
+        watchService = service;
+    }
+
+    /** Stops the thread started by {@link #startWatching(long)}, if any */
+    public synchronized void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+            watchService = null;
+        }
+    }
+
+    private void watch(final WatchService service, final Path fileName, final long debounceMillis) {
+        try {
+            boolean modified = false;
+            while (true) {
+                final WatchKey key =
+                        modified
+                                ? service.poll(debounceMillis, TimeUnit.MILLISECONDS)
+                                : service.take();
+                if (key == null) {
+                    // no further events within the debounce time
+                    modified = false;
+                    reload();
+                    continue;
+                }
+                modified |= containsFileEvent(key, fileName);
+                if (!key.reset()) {
+                    LOGGER.warn(
+                            "Stopped watching "
+                                    + inputFile
+                                    + " because its directory is no longer accessible");
+                    if (modified) {
+                        reload();
+                    }
+                    return;
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException e) {
+            // stopped watching
+        }
+    }
+
+    private static boolean containsFileEvent(final WatchKey key, final Path fileName) {
+        boolean found = false;
+        // all events need to be polled before resetting the key
+        for (final WatchEvent<?> event : key.pollEvents()) {
+            // events may have been lost on overflow
+            found |=
+                    (event.kind() == StandardWatchEventKinds.OVERFLOW)
+                            || fileName.equals(event.context());
+        }
+        return found;
+    }
+
+    private void reload() {
+        try {
+            run();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to reload modified test matrix " + inputFile, e);
+        }
+    }
+
+    private static class FileState {
+        private final long lastModified;
+        private final long length;
+        private final long checkedTime;
+        @Nonnull private final HashCode contentHash;
+
+        private FileState(
+                final long lastModified,
+                final long length,
+                final long checkedTime,
+                @Nonnull final HashCode contentHash) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.checkedTime = checkedTime;
+            this.contentHash = contentHash;
+        }
+
+        /**
+         * @return true if the file has the same modification time and size, and was not modified
+         *     so shortly before being checked that later writes could keep the modification time
+         */
+        private boolean isUnmodified(final long newLastModified, final long newLength) {
+            return (lastModified == newLastModified)
+                    && (length == newLength)
+                    && (lastModified + MODIFICATION_TIME_RESOLUTION_MILLIS < checkedTime);
+        }
     }
 }
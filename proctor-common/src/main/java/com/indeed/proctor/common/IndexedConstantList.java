@@ -0,0 +1,88 @@
+package com.indeed.proctor.common;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Read-only list of test constant values with hash indexes for {@link
+ * ProctorRuleFunctions#contains(java.util.Collection, Object)}, so that membership checks against
+ * large constant lists don't scan the list on each evaluation.
+ *
+ * <p>Integer numbers are additionally indexed by their long value in a primitive hash set, to keep
+ * the coercion of contains without boxing on lookup. Otherwise the list behaves like the wrapped
+ * one in rules, e.g. for indexed access or fn:length.
+ */
+final class IndexedConstantList<E> extends AbstractList<E> implements RandomAccess {
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    @Nonnull private final List<E> values;
+    @Nonnull private final Set<Object> valueSet;
+    /** open addressing hash table of the long values of integer numbers */
+    @Nonnull private final long[] longValues;
+    @Nonnull private final boolean[] occupied;
+    private final int hashShift;
+
+    IndexedConstantList(@Nonnull final List<E> values) {
+        this.values = values;
+        this.valueSet = new HashSet<>(values);
+
+        int bits = 1;
+        while ((1 << bits) < values.size() * 2) {
+            bits++;
+        }
+        this.longValues = new long[1 << bits];
+        this.occupied = new boolean[1 << bits];
+        this.hashShift = Long.SIZE - bits;
+        for (final Object value : values) {
+            if (ProctorRuleFunctions.isIntegerNumber(value)) {
+                addLong(((Number) value).longValue());
+            }
+        }
+    }
+
+    @Override
+    public E get(final int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    @Override
+    public boolean contains(@Nullable final Object o) {
+        return valueSet.contains(o);
+    }
+
+    /** @return true if an integer number in the list has the given value */
+    boolean containsLong(final long value) {
+        for (int i = slot(value); occupied[i]; i = (i + 1) & (longValues.length - 1)) {
+            if (longValues[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addLong(final long value) {
+        int i = slot(value);
+        while (occupied[i]) {
+            if (longValues[i] == value) {
+                return;
+            }
+            i = (i + 1) & (longValues.length - 1);
+        }
+        longValues[i] = value;
+        occupied[i] = true;
+    }
+
+    private int slot(final long value) {
+        return (int) ((value * HASH_MULTIPLIER) >>> hashShift);
+    }
+}
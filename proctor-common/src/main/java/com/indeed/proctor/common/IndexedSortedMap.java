@@ -0,0 +1,262 @@
+package com.indeed.proctor.common;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Mutable map from test name to value in natural order of test names, storing values in an array
+ * indexed by a {@link TestNameIndex}. Lookups and updates of indexed test names don't allocate.
+ *
+ * <p>The array has a slot for every indexed test, so the map is meant for results of all tests, not
+ * for a few filtered ones.
+ *
+ * <p>For legacy callers, the map behaves like a {@link TreeMap}. Only when a key outside of the
+ * index, a null value or a sub map view is needed, the entries are copied into a TreeMap once and
+ * all operations are delegated to it afterwards.
+ */
+final class IndexedSortedMap<V> extends AbstractMap<String, V> implements SortedMap<String, V> {
+    @Nonnull private final TestNameIndex index;
+    @Nonnull private final Object[] values;
+    /** number of non-null values */
+    private int size;
+    @Nullable private SortedMap<String, V> delegate;
+
+    IndexedSortedMap(@Nonnull final TestNameIndex index) {
+        this.index = index;
+        this.values = new Object[index.size()];
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (delegate != null) {
+            return delegate.get(key);
+        }
+        final int position = index.indexOf(key);
+        return (position < 0) ? null : valueAt(position);
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (delegate != null) {
+            return delegate.containsKey(key);
+        }
+        final int position = index.indexOf(key);
+        return (position >= 0) && (values[position] != null);
+    }
+
+    @Override
+    public V put(final String key, final V value) {
+        if (delegate == null) {
+            final int position = index.indexOf(key);
+            if ((position >= 0) && (value != null)) {
+                final V previous = valueAt(position);
+                values[position] = value;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+        }
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (delegate != null) {
+            return delegate.remove(key);
+        }
+        final int position = index.indexOf(key);
+        if (position < 0) {
+            return null;
+        }
+        final V previous = valueAt(position);
+        if (previous != null) {
+            values[position] = null;
+            size--;
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        if (delegate != null) {
+            delegate.clear();
+        } else {
+            Arrays.fill(values, null);
+            size = 0;
+        }
+    }
+
+    @Override
+    public int size() {
+        if (delegate != null) {
+            return delegate.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (delegate != null) {
+            return delegate.isEmpty();
+        }
+        return size == 0;
+    }
+
+    @Nonnull
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        if (delegate != null) {
+            return delegate.entrySet();
+        }
+        return new EntrySet();
+    }
+
+    @Override
+    public Comparator<? super String> comparator() {
+        // natural ordering, like the index
+        return null;
+    }
+
+    @Override
+    public String firstKey() {
+        if (delegate != null) {
+            return delegate.firstKey();
+        }
+        final int position = nextPosition(0);
+        if (position == values.length) {
+            throw new NoSuchElementException();
+        }
+        return index.getTestName(position);
+    }
+
+    @Override
+    public String lastKey() {
+        if (delegate != null) {
+            return delegate.lastKey();
+        }
+        for (int position = values.length - 1; position >= 0; position--) {
+            if (values[position] != null) {
+                return index.getTestName(position);
+            }
+        }
+        throw new NoSuchElementException();
+    }
+
+    @Nonnull
+    @Override
+    public SortedMap<String, V> subMap(final String fromKey, final String toKey) {
+        return materialize().subMap(fromKey, toKey);
+    }
+
+    @Nonnull
+    @Override
+    public SortedMap<String, V> headMap(final String toKey) {
+        return materialize().headMap(toKey);
+    }
+
+    @Nonnull
+    @Override
+    public SortedMap<String, V> tailMap(final String fromKey) {
+        return materialize().tailMap(fromKey);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(final int position) {
+        return (V) values[position];
+    }
+
+    /** @return the first position from the given one having a value, or the length of values */
+    private int nextPosition(final int from) {
+        int position = from;
+        while ((position < values.length) && (values[position] == null)) {
+            position++;
+        }
+        return position;
+    }
+
+    @Nonnull
+    private SortedMap<String, V> materialize() {
+        if (delegate == null) {
+            final SortedMap<String, V> map = new TreeMap<>();
+            for (int position = 0; position < values.length; position++) {
+                if (values[position] != null) {
+                    map.put(index.getTestName(position), valueAt(position));
+                }
+            }
+            delegate = map;
+        }
+        return delegate;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, V>> {
+        @Nonnull
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new Iterator<Entry<String, V>>() {
+                // values not returned yet, to stop scanning after the last one
+                private int remaining = size;
+                private int next = (remaining == 0) ? values.length : nextPosition(0);
+                private int last = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return next < values.length;
+                }
+
+                @Override
+                public Entry<String, V> next() {
+                    if (next >= values.length) {
+                        throw new NoSuchElementException();
+                    }
+                    last = next;
+                    remaining--;
+                    next = (remaining == 0) ? values.length : nextPosition(next + 1);
+                    return new IndexedEntry(last);
+                }
+
+                @Override
+                public void remove() {
+                    if (last < 0) {
+                        throw new IllegalStateException();
+                    }
+                    values[last] = null;
+                    size--;
+                    last = -1;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return IndexedSortedMap.this.size();
+        }
+    }
+
+    private class IndexedEntry extends SimpleEntry<String, V> {
+        private final int position;
+
+        IndexedEntry(final int position) {
+            super(index.getTestName(position), valueAt(position));
+            this.position = position;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (value == null) {
+                throw new NullPointerException("null values are not supported in entries");
+            }
+            values[position] = value;
+            return super.setValue(value);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Charsets;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+/**
+ * Computes the MD5 based hash values used to choose buckets of standard tests, without creating a
+ * {@link MessageDigest} or any arrays per call.
+ *
+ * <p>Each thread reuses a single digest and output buffer, and keeps the UTF-8 encoding of the
+ * last hashed identifier. Proctor evaluates all tests of one test type with the same identifier,
+ * so the identifier is encoded once per request and shared by all those tests.
+ *
+ * <p>The result is identical to hashing a fresh digest of salt bytes followed by identifier bytes,
+ * so bucket assignments do not change.
+ */
+final class MD5BucketHasher {
+    private static final int DIGEST_LENGTH = 16;
+
+    // arbitrary choice; changing this would reshuffle all groups just like changing the salt
+    private static final int DIGEST_OFFSET = 12;
+
+    private static final ThreadLocal<HashingState> STATE =
+            ThreadLocal.withInitial(HashingState::new);
+
+    private MD5BucketHasher() {}
+
+    /** @param salt utf-8 encoded salt of the test */
+    static int hash(@Nonnull final byte[] salt, @Nonnull final String identifier) {
+        return STATE.get().hash(salt, identifier);
+    }
+
+    static int convertToInt(@Nonnull final byte[] digest) {
+        return (0xff & digest[DIGEST_OFFSET + 0]) << 24
+                | (0xff & digest[DIGEST_OFFSET + 1]) << 16
+                | (0xff & digest[DIGEST_OFFSET + 2]) << 8
+                | (0xff & digest[DIGEST_OFFSET + 3]);
+    }
+
+    /** Per thread state, never shared between threads */
+    private static class HashingState {
+        private final MessageDigest messageDigest = ProctorUtils.createMessageDigest();
+        private final byte[] digest = new byte[DIGEST_LENGTH];
+        @Nullable private String lastIdentifier;
+        private byte[] lastIdentifierBytes = new byte[0];
+
+        int hash(@Nonnull final byte[] salt, @Nonnull final String identifier) {
+            if (!identifier.equals(lastIdentifier)) {
+                lastIdentifierBytes = identifier.getBytes(Charsets.UTF_8);
+                lastIdentifier = identifier;
+            }
+
+            messageDigest.update(salt);
+            messageDigest.update(lastIdentifierBytes);
+            try {
+                // also resets the message digest for the next call
+                messageDigest.digest(digest, 0, DIGEST_LENGTH);
+            } catch (final DigestException e) {
+                messageDigest.reset();
+                throw new IllegalStateException("Failed to compute MD5 digest", e);
+            }
+            return convertToInt(digest);
+        }
+    }
+}
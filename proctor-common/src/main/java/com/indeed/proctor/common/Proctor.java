@@ -16,6 +16,7 @@ import com.indeed.proctor.common.model.PayloadExperimentConfig;
 import com.indeed.proctor.common.model.TestBucket;
 import com.indeed.proctor.common.model.TestMatrixArtifact;
 import com.indeed.proctor.common.model.TestType;
+import com.indeed.util.varexport.Export;
 import com.indeed.util.varexport.VarExporter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -39,6 +40,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -93,55 +95,111 @@ public class Proctor {
             @Nonnull final FunctionMapper functionMapper,
             @Nonnull final IdentifierValidator identifierValidator,
             @Nullable final ProctorResultReporter resultReporter) {
-        final Map<String, TestChooser<?>> testChoosers = Maps.newLinkedHashMap();
-        final Map<String, String> versions = Maps.newLinkedHashMap();
+        return construct(
+                matrix, loadResult, functionMapper, identifierValidator, resultReporter, null);
+    }
+
+    /**
+     * Factory method to do the setup and transformation of inputs, reusing test choosers of a
+     * previously constructed Proctor for tests whose definition did not change. This makes
+     * reloading a test matrix cost proportional to the number of changed tests.
+     *
+     * @param matrix a {@link TestMatrixArtifact} loaded by ProctorLoader
+     * @param loadResult a {@link ProctorLoadResult} which contains result of validation of test
+     *     definition
+     * @param functionMapper a given el {@link FunctionMapper}
+     * @param previous a Proctor constructed from an earlier version of the matrix, its choosers
+     *     are only reused if it was constructed with the same functionMapper and
+     *     identifierValidator
+     * @return constructed Proctor object
+     */
+    @Nonnull
+    public static Proctor construct(
+            @Nonnull final TestMatrixArtifact matrix,
+            @Nonnull final ProctorLoadResult loadResult,
+            @Nonnull final FunctionMapper functionMapper,
+            @Nonnull final IdentifierValidator identifierValidator,
+            @Nullable final ProctorResultReporter resultReporter,
+            @Nullable final Proctor previous) {
+        final Proctor reusable =
+                ((previous != null)
+                                && (previous.functionMapper == functionMapper)
+                                && (previous.identifierValidator == identifierValidator))
+                        ? previous
+                        : null;
+        final Map<String, TestChooser<?>> previousTestChoosers =
+                (reusable != null) ? reusable.testChoosers : Collections.emptyMap();
 
+        final Map<String, TestChooser<?>> testChoosers = Maps.newLinkedHashMap();
+        int reusedTestChoosers = 0;
         for (final Entry<String, ConsumableTestDefinition> entry : matrix.getTests().entrySet()) {
             final String testName = entry.getKey();
             final ConsumableTestDefinition testDefinition = entry.getValue();
-            final TestType testType = testDefinition.getTestType();
-            final TestChooser<?> testChooser;
-            if (TestType.RANDOM.equals(testType)) {
-                testChooser =
-                        new RandomTestChooser(
-                                RuleEvaluator.EXPRESSION_FACTORY,
-                                functionMapper,
-                                testName,
-                                testDefinition);
+            final TestChooser<?> previousTestChooser = previousTestChoosers.get(testName);
+            if ((previousTestChooser != null)
+                    && testDefinition.equals(previousTestChooser.getTestDefinition())) {
+                // choosers are immutable after construction, so can be shared between instances
+                testChoosers.put(testName, previousTestChooser);
+                reusedTestChoosers++;
             } else {
-                if (testDefinition.getEnableUnitlessAllocations()) {
-                    testChooser =
-                            new UnitlessTestChooser(
-                                    RuleEvaluator.EXPRESSION_FACTORY,
-                                    functionMapper,
-                                    testName,
-                                    testDefinition,
-                                    identifierValidator);
-                } else {
-                    testChooser =
-                            new StandardTestChooser(
-                                    RuleEvaluator.EXPRESSION_FACTORY,
-                                    functionMapper,
-                                    testName,
-                                    testDefinition);
-                }
+                testChoosers.put(
+                        testName,
+                        createTestChooser(
+                                testName, testDefinition, functionMapper, identifierValidator));
             }
-            testChoosers.put(testName, testChooser);
-            versions.put(testName, testDefinition.getVersion());
+        }
+        if (reusable != null) {
+            LOGGER.debug(
+                    "Reused "
+                            + reusedTestChoosers
+                            + " of "
+                            + testChoosers.size()
+                            + " test choosers from previous test matrix");
         }
 
-        final List<String> testEvaluationOrder =
-                TestDependencies.determineEvaluationOrder(matrix.getTests());
+        final List<String> testEvaluationOrder;
+        if ((reusable != null)
+                && (reusedTestChoosers == testChoosers.size())
+                && (previousTestChoosers.size() == testChoosers.size())) {
+            // same tests with same dependencies as before
+            testEvaluationOrder = reusable.testEvaluationOrder;
+        } else {
+            testEvaluationOrder = TestDependencies.determineEvaluationOrder(matrix.getTests());
+        }
 
         return new Proctor(
                 matrix,
                 loadResult,
                 testChoosers,
                 testEvaluationOrder,
+                functionMapper,
                 identifierValidator,
                 resultReporter);
     }
 
+    @Nonnull
+    private static TestChooser<?> createTestChooser(
+            @Nonnull final String testName,
+            @Nonnull final ConsumableTestDefinition testDefinition,
+            @Nonnull final FunctionMapper functionMapper,
+            @Nonnull final IdentifierValidator identifierValidator) {
+        final TestType testType = testDefinition.getTestType();
+        if (TestType.RANDOM.equals(testType)) {
+            return new RandomTestChooser(
+                    RuleEvaluator.EXPRESSION_FACTORY, functionMapper, testName, testDefinition);
+        }
+        if (testDefinition.getEnableUnitlessAllocations()) {
+            return new UnitlessTestChooser(
+                    RuleEvaluator.EXPRESSION_FACTORY,
+                    functionMapper,
+                    testName,
+                    testDefinition,
+                    identifierValidator);
+        }
+        return new StandardTestChooser(
+                RuleEvaluator.EXPRESSION_FACTORY, functionMapper, testName, testDefinition);
+    }
+
     @Nonnull
     @VisibleForTesting
     static Proctor createEmptyProctor() {
@@ -173,13 +231,18 @@ public class Proctor {
     private final TestMatrixArtifact matrix;
     private final ProctorLoadResult loadResult;
     @Nonnull private final Map<String, TestChooser<?>> testChoosers;
+    @Nullable private final FunctionMapper functionMapper;
     @Nonnull private final IdentifierValidator identifierValidator;
 
     private final Map<String, ConsumableTestDefinition> testDefinitions = Maps.newLinkedHashMap();
 
     private final List<String> testEvaluationOrder;
     private final Map<String, Integer> evaluationOrderMap;
+    // positions of tests in per request arrays of buckets and allocations
+    @Nonnull private final TestNameIndex testNameIndex;
     @Nullable private final ProctorResultReporter resultReporter;
+    // 0 if evaluations of tests are not counted
+    private final int testEvaluationSampleRate;
 
     @VisibleForTesting
     Proctor(
@@ -189,9 +252,28 @@ public class Proctor {
             @Nonnull final List<String> testEvaluationOrder,
             @Nonnull final IdentifierValidator identifierValidator,
             @Nullable final ProctorResultReporter resultReporter) {
+        this(
+                matrix,
+                loadResult,
+                testChoosers,
+                testEvaluationOrder,
+                null,
+                identifierValidator,
+                resultReporter);
+    }
+
+    private Proctor(
+            @Nonnull final TestMatrixArtifact matrix,
+            @Nonnull final ProctorLoadResult loadResult,
+            @Nonnull final Map<String, TestChooser<?>> testChoosers,
+            @Nonnull final List<String> testEvaluationOrder,
+            @Nullable final FunctionMapper functionMapper,
+            @Nonnull final IdentifierValidator identifierValidator,
+            @Nullable final ProctorResultReporter resultReporter) {
         this.matrix = matrix;
         this.loadResult = loadResult;
         this.testChoosers = testChoosers;
+        this.functionMapper = functionMapper;
         for (final Entry<String, TestChooser<?>> entry : testChoosers.entrySet()) {
             this.testDefinitions.put(entry.getKey(), entry.getValue().getTestDefinition());
         }
@@ -201,11 +283,14 @@ public class Proctor {
                 IntStream.range(0, testEvaluationOrder.size())
                         .boxed()
                         .collect(Collectors.toMap(testEvaluationOrder::get, index -> index));
+        this.testNameIndex = new TestNameIndex(testChoosers.keySet());
 
         VarExporter.forNamespace(Proctor.class.getSimpleName()).includeInGlobal().export(this, "");
         VarExporter.forNamespace(DetailedExport.class.getSimpleName())
                 .export(new DetailedExport(), ""); //  intentionally not in global
         this.resultReporter = resultReporter;
+        this.testEvaluationSampleRate =
+                (resultReporter == null) ? 0 : resultReporter.getTestEvaluationSampleRate();
     }
 
     private static class DetailedExport {
@@ -320,11 +405,15 @@ public class Proctor {
                         .filter(testChoosers::containsKey)
                         .collect(Collectors.toSet());
 
-        // ProctorResult requires SortedMap internally, avoid copy overhead
+        // ProctorResult requires SortedMap internally, avoid copy overhead and tree nodes by using
+        // arrays indexed by test name when determining all tests. Filtered tests are few, so
+        // their tree nodes are cheaper than arrays for all tests.
         // use mutable map for legacy reasons, inside this codebase should not be modified after
         // this method
-        final SortedMap<String, TestBucket> testGroups = new TreeMap<>();
-        final SortedMap<String, Allocation> testAllocations = new TreeMap<>();
+        final SortedMap<String, TestBucket> testGroups =
+                determineAllTests ? new IndexedSortedMap<>(testNameIndex) : new TreeMap<>();
+        final SortedMap<String, Allocation> testAllocations =
+                determineAllTests ? new IndexedSortedMap<>(testNameIndex) : new TreeMap<>();
         final SortedMap<String, PayloadProperty> testProperties = new TreeMap<>();
 
         final List<String> filteredEvaluationOrder;
@@ -360,9 +449,13 @@ public class Proctor {
             }
         }
 
+        // contexts of generated groups managers are only wrapped for variables read by rules
         final Map<String, ValueExpression> localContext =
-                ProctorUtils.convertToValueExpressionMap(
-                        RuleEvaluator.EXPRESSION_FACTORY, inputContext);
+                (inputContext instanceof SlotContext)
+                        ? ((SlotContext) inputContext)
+                                .toValueExpressionMap(RuleEvaluator.EXPRESSION_FACTORY)
+                        : ProctorUtils.convertToValueExpressionMap(
+                                RuleEvaluator.EXPRESSION_FACTORY, inputContext);
         final Map<TestType, Integer> invalidIdentifierCount = new HashMap<>();
         for (final String testName : filteredEvaluationOrder) {
             final TestChooser<?> testChooser = testChoosers.get(testName);
@@ -392,6 +485,12 @@ public class Proctor {
                 identifier = null;
             }
 
+            final TestEvaluationStats evaluationStats =
+                    (testEvaluationSampleRate > 0) ? testChooser.getEvaluationStats() : null;
+            final boolean timed =
+                    (evaluationStats != null)
+                            && (ThreadLocalRandom.current().nextInt(testEvaluationSampleRate) == 0);
+            final long startNanos = timed ? System.nanoTime() : 0;
             final TestChooser.Result chooseResult =
                     testChooser.choose(
                             identifier,
@@ -400,6 +499,13 @@ public class Proctor {
                             forceGroupsOptions,
                             testTypesWithInvalidIdentifier,
                             identifiers.isRandomEnabled());
+            if (evaluationStats != null) {
+                if (timed) {
+                    evaluationStats.recordSampledTime(System.nanoTime() - startNanos);
+                }
+                evaluationStats.recordEvaluation(
+                        chooseResult.getAllocation(), chooseResult.getTestBucket() == null);
+            }
 
             if (chooseResult.getTestBucket() != null) {
                 testGroups.put(testName, chooseResult.getTestBucket());
@@ -440,6 +546,30 @@ public class Proctor {
         return result;
     }
 
+    /**
+     * @return counters of evaluations of each test. Rule errors are always counted, other counters
+     *     stay 0 unless enabled by {@link ProctorResultReporter#getTestEvaluationSampleRate()}
+     */
+    @Export(
+            name = "test-evaluation-stats",
+            doc = "Evaluations, fallbacks, rule errors, sampled times and allocation hits by test")
+    @Nonnull
+    public Map<String, TestEvaluationStats> getTestEvaluationStats() {
+        final Map<String, TestEvaluationStats> stats = new TreeMap<>();
+        for (final Entry<String, TestChooser<?>> entry : testChoosers.entrySet()) {
+            final TestEvaluationStats testStats = entry.getValue().getEvaluationStats();
+            if (testStats != null) {
+                stats.put(entry.getKey(), testStats);
+            }
+        }
+        return stats;
+    }
+
+    @VisibleForTesting
+    TestChooser<?> getTestChooser(final String testName) {
+        return testChoosers.get(testName);
+    }
+
     TestMatrixArtifact getArtifact() {
         return matrix;
     }
@@ -20,4 +20,16 @@ public interface ProctorResultReporter {
     void reportInvalidIdentifierTests(
             final ProctorResult result,
             final Map<TestType, Integer> testTypesWithInvalidIdentifier);
+
+    /**
+     * Enables counting evaluations of each test, exported as {@link
+     * Proctor#getTestEvaluationStats()}. Evaluation times are only measured for a sample of
+     * evaluations, to keep the overhead low. Rule errors are counted regardless.
+     *
+     * @return 0 to not count evaluations, otherwise the time of one in this many evaluations of a
+     *     test is measured
+     */
+    default int getTestEvaluationSampleRate() {
+        return 0;
+    }
 }
@@ -1,8 +1,12 @@
 package com.indeed.proctor.common;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.indeed.util.core.ReleaseVersion;
 
+import javax.annotation.Nonnull;
 import java.util.Collection;
+import java.util.regex.Pattern;
 
 /**
  * Library of functions to make available to EL rules
@@ -11,7 +15,35 @@ import java.util.Collection;
  */
 @SuppressWarnings("UnusedDeclaration")
 public class ProctorRuleFunctions {
+    /**
+     * Maximum number of compiled regular expressions and parsed versions of dynamic arguments kept
+     * each, which are compiled on first use.
+     */
+    static final int MAXIMUM_CACHED_ARGUMENTS = 1000;
+
+    private static final Cache<String, Pattern> PATTERNS =
+            CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_ARGUMENTS).build();
+    private static final Cache<String, ReleaseVersion> VERSIONS =
+            CacheBuilder.newBuilder().maximumSize(MAXIMUM_CACHED_ARGUMENTS).build();
+
+    /*
+     * Literal arguments of rules, compiled when the rules are compiled. Values are referenced by
+     * the compiled rules, so they are not evicted by dynamic arguments while the rules are in use
+     * and are dropped with the rules of a replaced test matrix.
+     */
+    private static final Cache<String, Pattern> LITERAL_PATTERNS =
+            CacheBuilder.newBuilder().weakValues().build();
+    private static final Cache<String, ReleaseVersion> LITERAL_VERSIONS =
+            CacheBuilder.newBuilder().weakValues().build();
+
     public static boolean contains(final Collection c, final Object element) {
+        if (c instanceof IndexedConstantList) {
+            // test constants indexed by RuleEvaluator, same semantics without scanning
+            final IndexedConstantList<?> constants = (IndexedConstantList<?>) c;
+            return isIntegerNumber(element)
+                    ? constants.containsLong(toLong(element))
+                    : constants.contains(element);
+        }
         if (isIntegerNumber(element)) {
             // This special treatment is required because the type of constant variable
             // determined implicitly in deserialization from JSON definition file.
@@ -38,7 +70,7 @@ public class ProctorRuleFunctions {
         return (object instanceof Float) || (object instanceof Double);
     }
 
-    private static boolean isIntegerNumber(final Object object) {
+    static boolean isIntegerNumber(final Object object) {
         return (object instanceof Number) && !isFloatNumber(object);
     }
 
@@ -54,7 +86,7 @@ public class ProctorRuleFunctions {
     }
 
     public static boolean matches(final String value, final String regex) {
-        return value.matches(regex);
+        return compilePattern(regex).matcher(value).matches();
     }
 
     public static long now() {
@@ -62,7 +94,7 @@ public class ProctorRuleFunctions {
     }
 
     public static ReleaseVersion version(final String versionString) {
-        return ReleaseVersion.fromString(versionString);
+        return parseVersion(versionString);
     }
 
     public static <T extends Comparable<T>> boolean inRange(
@@ -72,8 +104,8 @@ public class ProctorRuleFunctions {
 
     public static boolean versionInRange(
             final ReleaseVersion version, final String startInclusive, final String endExclusive) {
-        final ReleaseVersion start = ReleaseVersion.fromString(startInclusive);
-        final ReleaseVersion end = ReleaseVersion.fromString(endExclusive);
+        final ReleaseVersion start = parseVersion(startInclusive);
+        final ReleaseVersion end = parseVersion(endExclusive);
         if (end.getMatchPrecision() != ReleaseVersion.MatchPrecision.BUILD) {
             throw new IllegalStateException(
                     "Cannot use wildcard as open upper bound of range: " + endExclusive);
@@ -81,6 +113,58 @@ public class ProctorRuleFunctions {
         return inRange(version, start, end);
     }
 
+    /**
+     * same as Pattern.compile, but reusing the pattern of a literal argument of a rule in use or of
+     * a recent call with the same regex
+     */
+    @Nonnull
+    static Pattern compilePattern(@Nonnull final String regex) {
+        Pattern pattern = LITERAL_PATTERNS.getIfPresent(regex);
+        if (pattern == null) {
+            pattern = PATTERNS.getIfPresent(regex);
+        }
+        if (pattern == null) {
+            pattern = Pattern.compile(regex);
+            PATTERNS.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * same as ReleaseVersion.fromString, but reusing the result for a literal argument of a rule in
+     * use or of a recent call
+     */
+    @Nonnull
+    static ReleaseVersion parseVersion(@Nonnull final String versionString) {
+        ReleaseVersion version = LITERAL_VERSIONS.getIfPresent(versionString);
+        if (version == null) {
+            version = VERSIONS.getIfPresent(versionString);
+        }
+        if (version == null) {
+            version = ReleaseVersion.fromString(versionString);
+            VERSIONS.put(versionString, version);
+        }
+        return version;
+    }
+
+    /**
+     * Compiles a regex given as literal argument of a rule, kept while the caller references the
+     * returned pattern
+     */
+    @Nonnull
+    static Pattern compileLiteralPattern(@Nonnull final String regex) {
+        return LITERAL_PATTERNS.asMap().computeIfAbsent(regex, Pattern::compile);
+    }
+
+    /**
+     * Parses a version given as literal argument of a rule, kept while the caller references the
+     * returned version
+     */
+    @Nonnull
+    static ReleaseVersion parseLiteralVersion(@Nonnull final String versionString) {
+        return LITERAL_VERSIONS.asMap().computeIfAbsent(versionString, ReleaseVersion::fromString);
+    }
+
     public static MaybeBool maybeAnd(final MaybeBool op1, final MaybeBool op2) {
         if (MaybeBool.FALSE == op1 || MaybeBool.FALSE == op2) {
             return MaybeBool.FALSE;
@@ -115,6 +115,12 @@ class RandomTestChooser implements TestChooser<Void> {
         return testRangeSelector.getTestName();
     }
 
+    @Override
+    @Nonnull
+    public TestEvaluationStats getEvaluationStats() {
+        return testRangeSelector.getEvaluationStats();
+    }
+
     @Nonnull
     @Override
     public TestChooser.Result chooseInternal(
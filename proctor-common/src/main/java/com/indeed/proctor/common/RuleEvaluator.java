@@ -6,24 +6,38 @@ import com.indeed.proctor.common.el.PartialExpressionBuilder;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.el.ExpressionFactoryImpl;
+import org.apache.el.lang.ExpressionBuilder;
+import org.apache.el.parser.AstFunction;
+import org.apache.el.parser.AstString;
+import org.apache.el.parser.Node;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.el.ArrayELResolver;
 import javax.el.BeanELResolver;
 import javax.el.CompositeELResolver;
 import javax.el.ELContext;
+import javax.el.ELException;
 import javax.el.ELResolver;
 import javax.el.ExpressionFactory;
 import javax.el.FunctionMapper;
 import javax.el.ListELResolver;
 import javax.el.MapELResolver;
+import javax.el.PropertyNotWritableException;
 import javax.el.ValueExpression;
 import javax.el.ValueReference;
 import javax.el.VariableMapper;
+import java.beans.FeatureDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -43,6 +57,7 @@ public class RuleEvaluator {
 
     @Nonnull final ExpressionFactory expressionFactory;
     @Nonnull final CompositeELResolver elResolver;
+    @Nonnull private final CompositeELResolver compiledRuleElResolver;
     @Nonnull private final Map<String, ValueExpression> testConstants;
     @Nonnull private final FunctionMapper functionMapper;
 
@@ -55,9 +70,30 @@ public class RuleEvaluator {
         this.functionMapper = functionMapper;
 
         elResolver = constructStandardElResolver();
+        compiledRuleElResolver = new CompositeELResolver();
+        compiledRuleElResolver.add(new ContextVariableELResolver());
+        compiledRuleElResolver.add(elResolver);
 
         testConstants =
-                ProctorUtils.convertToValueExpressionMap(expressionFactory, testConstantsMap);
+                ProctorUtils.convertToValueExpressionMap(
+                        expressionFactory, indexConstantLists(testConstantsMap));
+    }
+
+    /**
+     * Replaces lists in the constants by {@link IndexedConstantList}, so that proctor:contains
+     * doesn't scan them on each evaluation.
+     */
+    @Nonnull
+    private static Map<String, Object> indexConstantLists(
+            @Nonnull final Map<String, Object> testConstantsMap) {
+        final Map<String, Object> constants = new HashMap<>(testConstantsMap);
+        for (final Map.Entry<String, Object> entry : constants.entrySet()) {
+            if ((entry.getValue() instanceof List)
+                    && !(entry.getValue() instanceof IndexedConstantList)) {
+                entry.setValue(new IndexedConstantList<>((List<?>) entry.getValue()));
+            }
+        }
+        return constants;
     }
 
     public static RuleEvaluator createDefaultRuleEvaluator(
@@ -94,11 +130,33 @@ public class RuleEvaluator {
 
     @Nonnull
     ELContext createELContext(@Nonnull final VariableMapper variableMapper) {
+        return createELContext(elResolver, variableMapper);
+    }
+
+    /**
+     * Creates the context to evaluate rules returned by {@link #compileBooleanRule(String)}.
+     * Compiled rules do not capture variables when parsed, instead identifiers are looked up by
+     * {@link ContextVariableELResolver} in the test constants and the given local context.
+     */
+    @Nonnull
+    ELContext createCompiledRuleElContext(
+            @Nonnull final Map<String, ValueExpression> localContext) {
+        @SuppressWarnings("unchecked")
+        final VariableMapper variableMapper =
+                new MulticontextReadOnlyVariableMapper(testConstants, localContext);
+        final ELContext elContext = createELContext(compiledRuleElResolver, variableMapper);
+        elContext.putContext(VariableMapper.class, variableMapper);
+        return elContext;
+    }
+
+    @Nonnull
+    private ELContext createELContext(
+            @Nonnull final ELResolver resolver, @Nullable final VariableMapper variableMapper) {
         return new ELContext() {
             @Nonnull
             @Override
             public ELResolver getELResolver() {
-                return elResolver;
+                return resolver;
             }
 
             @Nonnull
@@ -107,7 +165,7 @@ public class RuleEvaluator {
                 return functionMapper;
             }
 
-            @Nonnull
+            @Nullable
             @Override
             public VariableMapper getVariableMapper() {
                 return variableMapper;
@@ -115,6 +173,108 @@ public class RuleEvaluator {
         };
     }
 
+    /**
+     * Parses a boolean rule once so that it can be evaluated many times, e.g. on each call of
+     * determineTestGroups. The parsed expression does not depend on any context, so it must be
+     * evaluated with an ELContext from {@link #createCompiledRuleElContext(Map)}. Evaluation
+     * behaves like {@link #evaluateBooleanRuleWithValueExpr(String, Map)}, including errors for
+     * invalid rules, which are thrown when evaluating rather than when compiling.
+     */
+    @Nonnull
+    CompiledRule compileBooleanRule(@Nullable final String rule) {
+        if (StringUtils.isBlank(rule)) {
+            return CompiledRule.ALWAYS_TRUE;
+        }
+        if (!rule.startsWith("${") || !rule.endsWith("}")) {
+            return elContext -> {
+                LOGGER.error("Invalid rule '" + rule + "'");
+                return false;
+            };
+        }
+        final ProctorUtils.ElExpressionClassification ec =
+                ProctorUtils.clasifyElExpression(rule, true);
+        if (ec == ProctorUtils.ElExpressionClassification.EMPTY
+                || ec == ProctorUtils.ElExpressionClassification.CONSTANT_TRUE) {
+            return CompiledRule.ALWAYS_TRUE;
+        }
+        if (ec == ProctorUtils.ElExpressionClassification.CONSTANT_FALSE) {
+            return CompiledRule.ALWAYS_FALSE;
+        }
+
+        final ValueExpression ve;
+        try {
+            // no variable mapper, so that no variable is bound at parse time
+            ve =
+                    expressionFactory.createValueExpression(
+                            createELContext(elResolver, null), rule, boolean.class);
+        } catch (final ELException e) {
+            return elContext -> {
+                throw new ELException(e.getMessage(), e);
+            };
+        }
+        return new ExpressionRule(rule, ve, precompileLiteralArguments(rule));
+    }
+
+    /**
+     * Compiles regular expressions and versions given as string literals to {@link
+     * ProctorRuleFunctions}, so that evaluating the rule finds them already compiled.
+     *
+     * @return the compiled arguments, which stay cached as long as they are referenced
+     */
+    @Nonnull
+    private List<Object> precompileLiteralArguments(@Nonnull final String rule) {
+        final Node root;
+        try {
+            root = ExpressionBuilder.createNode(rule);
+        } catch (final ELException e) {
+            return Collections.emptyList();
+        }
+        final List<Object> literalArguments = new ArrayList<>();
+        precompileLiteralArguments(root, literalArguments);
+        return literalArguments;
+    }
+
+    private void precompileLiteralArguments(
+            @Nonnull final Node node, @Nonnull final List<Object> literalArguments) {
+        if (node instanceof AstFunction) {
+            final AstFunction function = (AstFunction) node;
+            final Method method =
+                    functionMapper.resolveFunction(function.getPrefix(), function.getLocalName());
+            if ((method != null) && (method.getDeclaringClass() == ProctorRuleFunctions.class)) {
+                for (int i = 0; i < function.jjtGetNumChildren(); i++) {
+                    final Node argument = function.jjtGetChild(i);
+                    if (argument instanceof AstString) {
+                        final Object compiled =
+                                precompileLiteralArgument(
+                                        method.getName(), i, ((AstString) argument).getString());
+                        if (compiled != null) {
+                            literalArguments.add(compiled);
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < node.jjtGetNumChildren(); i++) {
+            precompileLiteralArguments(node.jjtGetChild(i), literalArguments);
+        }
+    }
+
+    @CheckForNull
+    private static Object precompileLiteralArgument(
+            final String functionName, final int position, final String literal) {
+        try {
+            if ("matches".equals(functionName) && (position == 1)) {
+                return ProctorRuleFunctions.compileLiteralPattern(literal);
+            } else if ("version".equals(functionName)
+                    || ("versionInRange".equals(functionName) && (position > 0))) {
+                return ProctorRuleFunctions.parseLiteralVersion(literal);
+            }
+        } catch (final RuntimeException e) {
+            // invalid arguments fail when evaluating the rule, same as without compiling them
+        }
+        return null;
+    }
+
     /**
      * @deprecated Use evaluateBooleanRuleWithValueExpr(String, Map) instead, it's more efficient
      */
@@ -280,4 +440,124 @@ public class RuleEvaluator {
                 expressionFactory.createValueExpression(elContext, rule, expectedType);
         return ve.getValue(elContext);
     }
+
+    /** A boolean rule parsed once by {@link #compileBooleanRule(String)} */
+    @FunctionalInterface
+    interface CompiledRule {
+        CompiledRule ALWAYS_TRUE = elContext -> true;
+        CompiledRule ALWAYS_FALSE = elContext -> false;
+
+        /**
+         * @param elContext context created by {@link #createCompiledRuleElContext(Map)}
+         * @throws IllegalArgumentException if type of expression is not boolean
+         */
+        boolean evaluate(@Nonnull ELContext elContext);
+    }
+
+    /** Rule parsed into a value expression */
+    private static class ExpressionRule implements CompiledRule {
+        @Nonnull private final String rule;
+        @Nonnull private final ValueExpression ve;
+        /** compiled literal arguments, referenced so that they are kept while the rule is in use */
+        @Nonnull private final List<Object> literalArguments;
+
+        private ExpressionRule(
+                @Nonnull final String rule,
+                @Nonnull final ValueExpression ve,
+                @Nonnull final List<Object> literalArguments) {
+            this.rule = rule;
+            this.ve = ve;
+            this.literalArguments = literalArguments;
+        }
+
+        @Override
+        public boolean evaluate(@Nonnull final ELContext elContext) {
+            checkRuleIsBooleanType(rule, elContext, ve);
+
+            final Object result = ve.getValue(elContext);
+
+            if (result instanceof Boolean) {
+                return ((Boolean) result);
+            }
+            throw new IllegalArgumentException(
+                    "Received non-boolean return value: "
+                            + (result == null ? "null" : result.getClass().getCanonicalName())
+                            + " from rule "
+                            + rule);
+        }
+    }
+
+    /**
+     * Resolves top-level identifiers through the {@link VariableMapper} stored in the ELContext,
+     * same as the variable mapper would when parsing a rule against a context.
+     */
+    private static class ContextVariableELResolver extends ELResolver {
+        @CheckForNull
+        private static ValueExpression resolveVariable(
+                final ELContext context, final Object base, final Object property) {
+            if ((base != null) || (property == null)) {
+                return null;
+            }
+            final VariableMapper variableMapper =
+                    (VariableMapper) context.getContext(VariableMapper.class);
+            if (variableMapper == null) {
+                return null;
+            }
+            return variableMapper.resolveVariable(property.toString());
+        }
+
+        @Override
+        public Object getValue(final ELContext context, final Object base, final Object property) {
+            final ValueExpression ve = resolveVariable(context, base, property);
+            if (ve == null) {
+                return null;
+            }
+            context.setPropertyResolved(true);
+            return ve.getValue(context);
+        }
+
+        @Override
+        public Class<?> getType(final ELContext context, final Object base, final Object property) {
+            final ValueExpression ve = resolveVariable(context, base, property);
+            if (ve == null) {
+                return null;
+            }
+            context.setPropertyResolved(true);
+            return ve.getType(context);
+        }
+
+        @Override
+        public void setValue(
+                final ELContext context,
+                final Object base,
+                final Object property,
+                final Object value) {
+            if (resolveVariable(context, base, property) != null) {
+                throw new PropertyNotWritableException("Setting variables is not allowed");
+            }
+        }
+
+        @Override
+        public boolean isReadOnly(
+                final ELContext context, final Object base, final Object property) {
+            if (resolveVariable(context, base, property) == null) {
+                return false;
+            }
+            context.setPropertyResolved(true);
+            return true;
+        }
+
+        @CheckForNull
+        @Override
+        public Iterator<FeatureDescriptor> getFeatureDescriptors(
+                final ELContext context, final Object base) {
+            return null;
+        }
+
+        @CheckForNull
+        @Override
+        public Class<?> getCommonPropertyType(final ELContext context, final Object base) {
+            return (base == null) ? String.class : null;
+        }
+    }
 }
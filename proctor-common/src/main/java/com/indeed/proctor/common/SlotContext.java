@@ -0,0 +1,259 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.el.ExpressionFactory;
+import javax.el.ValueExpression;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Context whose variables are stored in the slots of {@link ContextSlots}, created by {@link
+ * ContextSlots#newContext(Object[])}.
+ *
+ * <p>Behaves like a mutable map of the context, e.g. for interceptors or {@link ProctorResult}.
+ * Variables without a slot can still be put, they are stored in a separate map.
+ */
+public final class SlotContext extends AbstractMap<String, Object> {
+    /** marks slots of removed variables, to tell them apart from variables with null values */
+    private static final Object ABSENT = new Object();
+
+    @Nonnull private final ContextSlots slots;
+    @Nonnull private final Object[] values;
+    /** variables without a slot, created on first put of such a variable */
+    @Nullable private Map<String, Object> extras;
+
+    SlotContext(@Nonnull final ContextSlots slots, @Nonnull final Object[] values) {
+        this.slots = slots;
+        // not aliasing the caller's array, which the context modifies on put and remove
+        this.values = values.clone();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        final int slot = slots.indexOf(key);
+        if (slot >= 0) {
+            return values[slot] != ABSENT;
+        }
+        return (extras != null) && extras.containsKey(key);
+    }
+
+    @CheckForNull
+    @Override
+    public Object get(final Object key) {
+        final int slot = slots.indexOf(key);
+        if (slot >= 0) {
+            return unmask(values[slot]);
+        }
+        return (extras == null) ? null : extras.get(key);
+    }
+
+    @CheckForNull
+    @Override
+    public Object put(final String key, final Object value) {
+        final int slot = slots.indexOf(key);
+        if (slot >= 0) {
+            final Object previous = values[slot];
+            values[slot] = value;
+            return unmask(previous);
+        }
+        if (extras == null) {
+            extras = new HashMap<>();
+        }
+        return extras.put(key, value);
+    }
+
+    @CheckForNull
+    @Override
+    public Object remove(final Object key) {
+        final int slot = slots.indexOf(key);
+        if (slot >= 0) {
+            final Object previous = values[slot];
+            values[slot] = ABSENT;
+            return unmask(previous);
+        }
+        return (extras == null) ? null : extras.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(values, ABSENT);
+        if (extras != null) {
+            extras.clear();
+        }
+    }
+
+    /**
+     * @return entries of the variables, supporting {@link Entry#setValue} and removal through the
+     *     iterator like the entries of a {@link HashMap}
+     */
+    @Nonnull
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Nonnull
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                final Iterator<Entry<String, Object>> extraEntries =
+                        (extras == null)
+                                ? Collections.emptyIterator()
+                                : extras.entrySet().iterator();
+                return Iterators.concat(new SlotIterator(), extraEntries);
+            }
+
+            @Override
+            public int size() {
+                int size = (extras == null) ? 0 : extras.size();
+                for (final Object value : values) {
+                    if (value != ABSENT) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+
+    /**
+     * @return rule variables of this context. Values of slots are wrapped into value expressions
+     *     only when a rule reads them, instead of converting all variables on each request.
+     */
+    @Nonnull
+    Map<String, ValueExpression> toValueExpressionMap(
+            @Nonnull final ExpressionFactory expressionFactory) {
+        return new SlotValueExpressionMap(expressionFactory);
+    }
+
+    @CheckForNull
+    private static Object unmask(@Nullable final Object value) {
+        return (value == ABSENT) ? null : value;
+    }
+
+    private class SlotIterator implements Iterator<Entry<String, Object>> {
+        private int next = nextPresentSlot(0);
+        /** slot of the entry last returned by next, -1 if none or removed */
+        private int current = -1;
+
+        private int nextPresentSlot(final int from) {
+            int slot = from;
+            while ((slot < values.length) && (values[slot] == ABSENT)) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final Entry<String, Object> entry = new SlotEntry(next);
+            current = next;
+            next = nextPresentSlot(next + 1);
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(current >= 0, "next() was not called or already removed");
+            values[current] = ABSENT;
+            current = -1;
+        }
+    }
+
+    /** Entry of a slot, writing values set through it to the slot */
+    private class SlotEntry extends SimpleEntry<String, Object> {
+        private final int slot;
+
+        private SlotEntry(final int slot) {
+            super(slots.getName(slot), values[slot]);
+            this.slot = slot;
+        }
+
+        @Override
+        public Object setValue(final Object value) {
+            values[slot] = value;
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Variables of the context by slot, with value expressions created on first lookup. Variables
+     * put into this map, e.g. {@link ProctorUtils#UNITLESS_ALLOCATION_IDENTIFIER}, don't modify
+     * the context.
+     */
+    private class SlotValueExpressionMap extends AbstractMap<String, ValueExpression> {
+        @Nonnull private final ExpressionFactory expressionFactory;
+        @Nonnull private final ValueExpression[] expressions = new ValueExpression[values.length];
+        @Nonnull private final Map<String, ValueExpression> extraExpressions = new HashMap<>();
+
+        private SlotValueExpressionMap(@Nonnull final ExpressionFactory expressionFactory) {
+            this.expressionFactory = expressionFactory;
+            if (extras != null) {
+                extraExpressions.putAll(
+                        ProctorUtils.convertToValueExpressionMap(expressionFactory, extras));
+            }
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @CheckForNull
+        @Override
+        public ValueExpression get(final Object key) {
+            final int slot = slots.indexOf(key);
+            if (slot < 0) {
+                return extraExpressions.get(key);
+            }
+            if ((expressions[slot] == null) && (values[slot] != ABSENT)) {
+                expressions[slot] =
+                        expressionFactory.createValueExpression(values[slot], Object.class);
+            }
+            return expressions[slot];
+        }
+
+        @CheckForNull
+        @Override
+        public ValueExpression put(final String key, final ValueExpression value) {
+            final int slot = slots.indexOf(key);
+            if (slot < 0) {
+                return extraExpressions.put(key, value);
+            }
+            final ValueExpression previous = get(key);
+            expressions[slot] = value;
+            return previous;
+        }
+
+        @Nonnull
+        @Override
+        public Set<Entry<String, ValueExpression>> entrySet() {
+            final Map<String, ValueExpression> snapshot = new HashMap<>(extraExpressions);
+            for (int slot = 0; slot < expressions.length; slot++) {
+                final String name = slots.getName(slot);
+                final ValueExpression expression = get(name);
+                if (expression != null) {
+                    snapshot.put(name, expression);
+                }
+            }
+            return Collections.unmodifiableMap(snapshot).entrySet();
+        }
+    }
+}
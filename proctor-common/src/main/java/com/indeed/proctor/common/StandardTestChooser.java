@@ -19,7 +19,6 @@ import javax.el.ValueExpression;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
-import java.security.MessageDigest;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -228,8 +227,14 @@ class StandardTestChooser implements TestChooser<String> {
         return testRangeSelector.getTestName();
     }
 
+    @Nonnull
+    @Override
+    public TestEvaluationStats getEvaluationStats() {
+        return testRangeSelector.getEvaluationStats();
+    }
+
     /** @author matts */
-    private interface Hasher {
+    interface Hasher {
         int hash(@Nonnull String identifier);
     }
 
@@ -243,24 +248,7 @@ class StandardTestChooser implements TestChooser<String> {
 
         @Override
         public int hash(@Nonnull final String identifier) {
-            final MessageDigest md = ProctorUtils.createMessageDigest();
-
-            md.update(bytes);
-            md.update(identifier.getBytes(Charsets.UTF_8));
-
-            final byte[] digest = md.digest();
-
-            return convertToInt(digest);
-        }
-
-        private static int convertToInt(final byte[] digest) {
-            final int offset =
-                    12; //  arbitrary choice; changing this would reshuffle all groups just like
-            // changing the salt
-            return (0xff & digest[offset + 0]) << 24
-                    | (0xff & digest[offset + 1]) << 16
-                    | (0xff & digest[offset + 2]) << 8
-                    | (0xff & digest[offset + 3]);
+            return MD5BucketHasher.hash(bytes, identifier);
         }
     }
 
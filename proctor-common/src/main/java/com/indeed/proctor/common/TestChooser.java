@@ -37,6 +37,12 @@ interface TestChooser<IdentifierType> {
     @Nonnull
     String getTestName();
 
+    /** @return counters of evaluations of this test, null if not counted */
+    @Nullable
+    default TestEvaluationStats getEvaluationStats() {
+        return null;
+    }
+
     /**
      * Do not directly call this outside this interface. We should call {@link #choose(Object, Map,
      * Map, ForceGroupsOptions)}, instead.
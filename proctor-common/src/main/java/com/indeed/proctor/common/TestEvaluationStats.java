@@ -0,0 +1,125 @@
+package com.indeed.proctor.common;
+
+import com.indeed.proctor.common.model.Allocation;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counters of the evaluations of a single test, to find tests with slow or failing rules.
+ *
+ * <p>Rule errors are always counted and exported by {@link Proctor#getTestEvaluationStats()}. Other
+ * values are only recorded by {@link Proctor#determineTestGroups} if the {@link
+ * ProctorResultReporter} of the Proctor enables them, see {@link
+ * ProctorResultReporter#getTestEvaluationSampleRate()}, and are 0 otherwise. Counters are kept
+ * while the test definition is unchanged, also across reloads of the test matrix.
+ */
+public final class TestEvaluationStats {
+    @Nonnull private final List<Allocation> allocations;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+    private final LongAdder ruleErrors = new LongAdder();
+    private final LongAdder sampledEvaluations = new LongAdder();
+    private final LongAdder sampledNanos = new LongAdder();
+    private final LongAccumulator maxSampledNanos = new LongAccumulator(Long::max, 0);
+    /** evaluations resolved to each allocation, by index of the allocation */
+    @Nonnull private final AtomicLongArray allocationHits;
+
+    TestEvaluationStats(@Nonnull final List<Allocation> allocations) {
+        this.allocations = allocations;
+        this.allocationHits = new AtomicLongArray(allocations.size());
+    }
+
+    void recordRuleError() {
+        ruleErrors.increment();
+    }
+
+    /**
+     * @param allocation resolved allocation, null if no allocation was resolved, e.g. for forced
+     *     groups
+     * @param fallback true if no bucket was resolved, so that clients use their fallback bucket
+     */
+    void recordEvaluation(@Nullable final Allocation allocation, final boolean fallback) {
+        evaluations.increment();
+        if (fallback) {
+            fallbacks.increment();
+        }
+        if (allocation != null) {
+            for (int i = 0; i < allocations.size(); i++) {
+                if (allocations.get(i) == allocation) {
+                    allocationHits.incrementAndGet(i);
+                    break;
+                }
+            }
+        }
+    }
+
+    void recordSampledTime(final long nanos) {
+        sampledEvaluations.increment();
+        sampledNanos.add(nanos);
+        maxSampledNanos.accumulate(nanos);
+    }
+
+    /** @return number of recorded evaluations */
+    public long getEvaluations() {
+        return evaluations.sum();
+    }
+
+    /** @return number of evaluations which resolved no bucket */
+    public long getFallbacks() {
+        return fallbacks.sum();
+    }
+
+    /** @return number of evaluations where the test rule or an allocation rule threw */
+    public long getRuleErrors() {
+        return ruleErrors.sum();
+    }
+
+    /** @return number of evaluations whose time was measured */
+    public long getSampledEvaluations() {
+        return sampledEvaluations.sum();
+    }
+
+    /** @return total time of the measured evaluations */
+    public long getSampledNanos() {
+        return sampledNanos.sum();
+    }
+
+    /** @return time of the slowest measured evaluation */
+    public long getMaxSampledNanos() {
+        return maxSampledNanos.get();
+    }
+
+    /** @return evaluations resolved to each allocation, in order of allocations of the test */
+    @Nonnull
+    public long[] getAllocationHits() {
+        final long[] hits = new long[allocationHits.length()];
+        for (int i = 0; i < hits.length; i++) {
+            hits[i] = allocationHits.get(i);
+        }
+        return hits;
+    }
+
+    @Override
+    public String toString() {
+        final long sampled = getSampledEvaluations();
+        return "evaluations="
+                + getEvaluations()
+                + " fallbacks="
+                + getFallbacks()
+                + " ruleErrors="
+                + getRuleErrors()
+                + " meanNanos="
+                + ((sampled == 0) ? 0 : (getSampledNanos() / sampled))
+                + " maxNanos="
+                + getMaxSampledNanos()
+                + " allocationHits="
+                + Arrays.toString(getAllocationHits());
+    }
+}
@@ -0,0 +1,39 @@
+package com.indeed.proctor.common;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns each test name of a {@link Proctor} a position in natural order, so that per request
+ * values can be stored in flat arrays instead of tree maps. Immutable and shared by all requests.
+ */
+final class TestNameIndex {
+    @Nonnull private final String[] testNames;
+    @Nonnull private final Map<String, Integer> positions;
+
+    TestNameIndex(@Nonnull final Collection<String> testNames) {
+        this.testNames = testNames.stream().sorted().toArray(String[]::new);
+        this.positions = new HashMap<>(this.testNames.length * 2);
+        for (int i = 0; i < this.testNames.length; i++) {
+            positions.put(this.testNames[i], i);
+        }
+    }
+
+    int size() {
+        return testNames.length;
+    }
+
+    @Nonnull
+    String getTestName(final int position) {
+        return testNames[position];
+    }
+
+    /** @return position of the test name, -1 if it is not indexed */
+    int indexOf(@Nullable final Object testName) {
+        final Integer position = positions.get(testName);
+        return (position == null) ? -1 : position;
+    }
+}
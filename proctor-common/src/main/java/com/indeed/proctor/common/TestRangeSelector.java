@@ -12,6 +12,7 @@ import org.apache.logging.log4j.Logger;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import javax.el.ELContext;
 import javax.el.ExpressionFactory;
 import javax.el.FunctionMapper;
 import javax.el.ValueExpression;
@@ -22,7 +23,8 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.function.Function;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
 
 /**
  * This is perhaps not the greatest abstraction the world has seen; is meant to consolidate common
@@ -36,8 +38,11 @@ public class TestRangeSelector {
     @Nonnull private final String testName;
     @Nonnull private final ConsumableTestDefinition testDefinition;
     @Nonnull private final String[] rules;
+    @Nonnull private final RuleEvaluator.CompiledRule compiledTestRule;
+    @Nonnull private final RuleEvaluator.CompiledRule[] compiledRules;
     @Nonnull private final TestBucket[][] rangeToBucket;
     private final RuleEvaluator ruleEvaluator;
+    @Nonnull private final TestEvaluationStats evaluationStats;
 
     TestRangeSelector(
             @Nonnull final ExpressionFactory expressionFactory,
@@ -64,12 +69,18 @@ public class TestRangeSelector {
             bucketValueToTest.put(testBucket.getValue(), testBucket);
         }
 
+        // rules are parsed once here instead of on each evaluation
+        this.compiledTestRule = ruleEvaluator.compileBooleanRule(testDefinition.getRule());
+
         final List<Allocation> allocations = testDefinition.getAllocations();
+        this.evaluationStats = new TestEvaluationStats(allocations);
         this.rangeToBucket = new TestBucket[allocations.size()][];
         this.rules = new String[allocations.size()];
+        this.compiledRules = new RuleEvaluator.CompiledRule[allocations.size()];
         for (int i = 0; i < allocations.size(); i++) {
             final Allocation allocation = allocations.get(i);
             rules[i] = allocation.getRule();
+            compiledRules[i] = ruleEvaluator.compileBooleanRule(rules[i]);
             final List<Range> ranges = allocation.getRanges();
             this.rangeToBucket[i] = new TestBucket[ranges.size()];
             for (int j = 0; j < ranges.size(); j++) {
@@ -89,21 +100,27 @@ public class TestRangeSelector {
             @Nonnull final Map<String, TestBucket> testGroups,
             @Nullable final String identifier) {
         return findMatchingRuleInternal(
-                rule -> ruleEvaluator.evaluateBooleanRule(rule, values), testGroups, identifier);
+                () -> ruleEvaluator.evaluateBooleanRule(testDefinition.getRule(), values),
+                index -> ruleEvaluator.evaluateBooleanRule(rules[index], values),
+                testGroups,
+                identifier);
     }
 
     public int findMatchingRuleWithValueExpr(
             @Nonnull final Map<String, ValueExpression> localContext,
             @Nonnull final Map<String, TestBucket> testGroups,
             @Nullable final String identifier) {
+        final ELContext elContext = ruleEvaluator.createCompiledRuleElContext(localContext);
         return findMatchingRuleInternal(
-                rule -> ruleEvaluator.evaluateBooleanRuleWithValueExpr(rule, localContext),
+                () -> compiledTestRule.evaluate(elContext),
+                index -> compiledRules[index].evaluate(elContext),
                 testGroups,
                 identifier);
     }
 
     private int findMatchingRuleInternal(
-            final Function<String, Boolean> evaluator,
+            final BooleanSupplier testRuleEvaluator,
+            final IntPredicate allocationRuleEvaluator,
             @Nonnull final Map<String, TestBucket> testGroups,
             @Nullable final String identifier) {
         final TestDependency dependsOn = testDefinition.getDependsOn();
@@ -117,13 +134,14 @@ public class TestRangeSelector {
         @Nullable final String rule = testDefinition.getRule();
         try {
             if (rule != null) {
-                if (!evaluator.apply(rule)) {
+                if (!testRuleEvaluator.getAsBoolean()) {
                     return -1;
                 }
             }
 
-            return getMatchingAllocation(evaluator, identifier);
+            return getMatchingAllocation(allocationRuleEvaluator, identifier);
         } catch (final RuntimeException e) {
+            evaluationStats.recordRuleError();
             LOGGER.error(
                     "Failed to evaluate test rule; ",
                     new InvalidRuleException(
@@ -136,16 +154,18 @@ public class TestRangeSelector {
         return -1;
     }
 
+    /** @param evaluator evaluates the rule of the allocation at the given index */
     protected int getMatchingAllocation(
-            final Function<String, Boolean> evaluator, @Nullable final String identifier) {
+            final IntPredicate evaluator, @Nullable final String identifier) {
         int i = 0;
         try {
             for (i = 0; i < rules.length; i++) {
-                if (evaluator.apply(rules[i])) {
+                if (evaluator.test(i)) {
                     return i;
                 }
             }
         } catch (final RuntimeException e) {
+            evaluationStats.recordRuleError();
             LOGGER.error(
                     "Failed to evaluate test allocation rules; ",
                     new InvalidRuleException(
@@ -167,6 +187,11 @@ public class TestRangeSelector {
         return testDefinition;
     }
 
+    @Nonnull
+    TestEvaluationStats getEvaluationStats() {
+        return evaluationStats;
+    }
+
     /**
      * Do not evaluate the rule, do not use the pseudo-random allocation algorithm, do not collect
      * $200. This should ONLY be used by privileged code for debugging.
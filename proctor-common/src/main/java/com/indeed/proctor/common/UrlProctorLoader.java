@@ -1,25 +1,45 @@
 package com.indeed.proctor.common;
 
+import com.google.common.io.Closeables;
 import com.indeed.proctor.common.model.TestMatrixArtifact;
 
 import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.el.FunctionMapper;
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.net.URLConnection;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Support class for loading a test matrix artifact from a URL-based JSON file
  *
+ * <p>For http(s) urls, gzip encoded responses are accepted. With {@link
+ * #setConditionalRequestsEnabled(boolean)}, the ETag and Last-Modified headers of the last loaded
+ * test matrix are sent back, and a 304 Not Modified response is treated as no change.
+ *
  * @author jack
  */
 public class UrlProctorLoader extends AbstractJsonProctorLoader {
     @Nonnull private final URL inputURL;
 
+    private boolean conditionalRequestsEnabled = false;
+
+    // validators of the last loaded test matrix
+    @Nullable private String entityTag;
+    @Nullable private String lastModified;
+
+    // validators of the response read in the current load, remembered only once loading succeeds
+    @Nullable private String pendingEntityTag;
+    @Nullable private String pendingLastModified;
+
     public UrlProctorLoader(
             @Nonnull final ProctorSpecification specification, @Nonnull final String inputUrl)
             throws MalformedURLException {
@@ -47,6 +67,14 @@ public class UrlProctorLoader extends AbstractJsonProctorLoader {
         this.inputURL = inputUrl;
     }
 
+    /**
+     * @param conditionalRequestsEnabled true to send If-None-Match and If-Modified-Since headers
+     *     so that the test matrix is not downloaded again when it is not modified
+     */
+    public void setConditionalRequestsEnabled(final boolean conditionalRequestsEnabled) {
+        this.conditionalRequestsEnabled = conditionalRequestsEnabled;
+    }
+
     @Nonnull
     @Override
     protected String getSource() {
@@ -56,8 +84,64 @@ public class UrlProctorLoader extends AbstractJsonProctorLoader {
     @CheckForNull
     @Override
     protected TestMatrixArtifact loadTestMatrix() throws IOException, TestMatrixOutdatedException {
-        try (Reader reader = new BufferedReader(new InputStreamReader(inputURL.openStream()))) {
+        final URLConnection connection = inputURL.openConnection();
+        final InputStream stream;
+        if (connection instanceof HttpURLConnection) {
+            stream = openHttpStream((HttpURLConnection) connection);
+        } else {
+            stream = connection.getInputStream();
+        }
+        try (Reader reader = new BufferedReader(new InputStreamReader(stream))) {
             return loadJsonTestMatrix(reader);
         }
     }
+
+    @Nonnull
+    private InputStream openHttpStream(@Nonnull final HttpURLConnection connection)
+            throws IOException, TestMatrixOutdatedException {
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        if (conditionalRequestsEnabled) {
+            if (entityTag != null) {
+                connection.setRequestProperty("If-None-Match", entityTag);
+            }
+            if (lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", lastModified);
+            }
+        }
+
+        if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            pendingEntityTag = entityTag;
+            pendingLastModified = lastModified;
+            throw new TestMatrixOutdatedException(
+                    "Test matrix at " + getSource() + " is not modified");
+        }
+
+        // throws IOException for error responses
+        final InputStream stream = connection.getInputStream();
+        pendingEntityTag = connection.getHeaderField("ETag");
+        pendingLastModified = connection.getHeaderField("Last-Modified");
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            try {
+                // reads the gzip header, failing for invalid content
+                return new GZIPInputStream(stream);
+            } catch (final IOException e) {
+                // not returned, so the caller cannot close it
+                Closeables.closeQuietly(stream);
+                throw e;
+            }
+        }
+        return stream;
+    }
+
+    @CheckForNull
+    @Override
+    public Proctor doLoad() throws IOException, MissingTestMatrixException {
+        pendingEntityTag = null;
+        pendingLastModified = null;
+        final Proctor proctor = super.doLoad();
+        // not remembered when loading fails, so that the next request downloads the matrix again
+        entityTag = pendingEntityTag;
+        lastModified = pendingLastModified;
+        return proctor;
+    }
 }
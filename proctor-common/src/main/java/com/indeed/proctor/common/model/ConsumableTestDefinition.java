@@ -10,6 +10,7 @@ import javax.annotation.Nullable;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Models a single test
@@ -311,6 +312,68 @@ public class ConsumableTestDefinition {
         this.payloadExperimentConfig = payloadExperimentConfig;
     }
 
+    /**
+     * similar to generated equals() method, but special treatment of buckets, because testBucket
+     * has unconventional equals/hashcode implementation, same as {@link TestDefinition#equals}.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ConsumableTestDefinition that = (ConsumableTestDefinition) o;
+        return silent == that.silent
+                && isDynamic == that.isDynamic
+                && evaluateForIncognitoUsers == that.evaluateForIncognitoUsers
+                && enableUnitlessAllocations == that.enableUnitlessAllocations
+                && containsUnitlessAllocation == that.containsUnitlessAllocation
+                && forceLogging == that.forceLogging
+                && Objects.equals(version, that.version)
+                && Objects.equals(constants, that.constants)
+                && Objects.equals(salt, that.salt)
+                && Objects.equals(rule, that.rule)
+                && TestDefinition.bucketListEqual(buckets, that.buckets)
+                && Objects.equals(allocations, that.allocations)
+                && Objects.equals(testType, that.testType)
+                && Objects.equals(description, that.description)
+                && Objects.equals(metaTags, that.metaTags)
+                && Objects.equals(dependsOn, that.dependsOn)
+                && Objects.equals(payloadExperimentConfig, that.payloadExperimentConfig);
+    }
+
+    @Override
+    public int hashCode() {
+        // because TestBuckets.hashCode() only considers name, use testBuckets.fullHashCode()
+        int bucketsHashCode = 1;
+        if (buckets != null) {
+            for (final TestBucket bucket : buckets) {
+                bucketsHashCode =
+                        31 * bucketsHashCode + (bucket == null ? 0 : bucket.fullHashCode());
+            }
+        }
+        return Objects.hash(
+                version,
+                constants,
+                salt,
+                rule,
+                bucketsHashCode,
+                allocations,
+                silent,
+                testType,
+                description,
+                metaTags,
+                dependsOn,
+                isDynamic,
+                evaluateForIncognitoUsers,
+                enableUnitlessAllocations,
+                containsUnitlessAllocation,
+                forceLogging,
+                payloadExperimentConfig);
+    }
+
     @Nonnull
     public static ConsumableTestDefinition fromTestDefinition(@Nonnull final TestDefinition td) {
         final Map<String, Object> specialConstants = td.getSpecialConstants();
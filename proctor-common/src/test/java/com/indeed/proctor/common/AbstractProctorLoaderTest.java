@@ -26,6 +26,8 @@ import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AbstractProctorLoaderTest {
@@ -214,6 +216,26 @@ public class AbstractProctorLoaderTest {
                 .containsOnlyKeys(requiredTestname, dynamicAddedTestname);
     }
 
+    @Test
+    public void testDoLoadSkipsVerificationWhenAuditUnchanged() throws IOException {
+        final Audit audit = new Audit();
+        audit.setVersion("1");
+        final TestMatrixArtifact matrix = mock(TestMatrixArtifact.class);
+        when(matrix.getAudit()).thenReturn(audit);
+        final TestProctorLoader loader =
+                new TestProctorLoader(dataLoaderTimerMock) {
+                    @Nullable
+                    @Override
+                    TestMatrixArtifact loadTestMatrix() {
+                        return matrix;
+                    }
+                };
+        loader.setLastAudit(audit);
+
+        assertThat(loader.doLoad()).isNull();
+        verify(matrix, never()).getTests();
+    }
+
     @Test
     public void testLogDynamicTests() {
         final TestProctorLoader loader = new TestProctorLoader(dataLoaderTimerMock);
@@ -5,6 +5,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.indeed.proctor.common.dynamic.DynamicFilters;
 import com.indeed.proctor.common.dynamic.MetaTagsFilter;
+import com.indeed.proctor.common.model.Audit;
 import com.indeed.proctor.common.model.ConsumableTestDefinition;
 import com.indeed.proctor.common.model.Payload;
 import com.indeed.proctor.common.model.TestBucket;
@@ -22,6 +23,7 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.offset;
 
 public class TestAbstractJsonProctorLoader {
@@ -145,6 +147,28 @@ public class TestAbstractJsonProctorLoader {
                 .containsExactlyInAnyOrder("sometst", "meta_tags_tst");
     }
 
+    @Test
+    public void testLoadJsonTestMatrixWithUnchangedAudit() throws IOException {
+        proctorLoader =
+                new ExampleJsonProctorLoader(TESTS_IN_EXAMPLE_TEST_MATRIX, Collections.emptySet());
+        final Audit audit = new Audit();
+        audit.setVersion("1524");
+        proctorLoader.setLastAudit(audit);
+
+        final String path = getClass().getResource("example-test-matrix.json").getPath();
+        final Reader reader = new FileReader(new File(path));
+        assertThatThrownBy(() -> proctorLoader.loadJsonTestMatrix(reader))
+                .isInstanceOf(TestMatrixOutdatedException.class);
+    }
+
+    @Test
+    public void testDoLoadWithUnchangedAudit() throws IOException, MissingTestMatrixException {
+        proctorLoader =
+                new ExampleJsonProctorLoader(TESTS_IN_EXAMPLE_TEST_MATRIX, Collections.emptySet());
+        assertThat(proctorLoader.doLoad()).isNotNull();
+        assertThat(proctorLoader.doLoad()).isNull();
+    }
+
     class ExampleJsonProctorLoader extends AbstractJsonProctorLoader {
         public ExampleJsonProctorLoader(
                 final Set<String> requiredTests, final Set<String> metaTags) {
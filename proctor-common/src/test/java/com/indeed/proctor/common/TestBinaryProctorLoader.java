@@ -0,0 +1,70 @@
+package com.indeed.proctor.common;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.indeed.proctor.common.dynamic.DynamicFilters;
+import com.indeed.proctor.common.dynamic.MetaTagsFilter;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBinaryProctorLoader {
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File matrixFile;
+
+    @Before
+    public void setUp() throws IOException {
+        final TestMatrixArtifact artifact;
+        try (InputStream stream = getClass().getResourceAsStream("example-test-matrix.json")) {
+            artifact = Serializers.lenient().readValue(stream, TestMatrixArtifact.class);
+        }
+        matrixFile = temporaryFolder.newFile("proctor-tests-matrix.bin");
+        try (OutputStream out = new FileOutputStream(matrixFile)) {
+            BinaryTestMatrix.write(artifact, out);
+        }
+    }
+
+    @Test
+    public void testLoadReferencedTests() throws Exception {
+        final ProctorSpecification specification =
+                new ProctorSpecification(
+                        Collections.emptyMap(),
+                        ImmutableMap.of(
+                                "exampletst", new TestSpecification(),
+                                "null_tst", new TestSpecification()),
+                        new DynamicFilters(
+                                ImmutableList.of(
+                                        new MetaTagsFilter(Collections.singleton("sometag")))));
+        final BinaryProctorLoader loader =
+                new BinaryProctorLoader(
+                        specification, matrixFile, RuleEvaluator.FUNCTION_MAPPER);
+
+        final TestMatrixArtifact artifact = loader.loadTestMatrix();
+
+        assertThat(artifact.getAudit().getVersion()).isEqualTo("1524");
+        assertThat(artifact.getTests()).containsOnlyKeys("exampletst", "null_tst", "sometst");
+        assertThat(artifact.getTests().get("null_tst")).isNull();
+    }
+
+    @Test
+    public void testDoLoadWithUnchangedAudit() throws Exception {
+        final BinaryProctorLoader loader =
+                new BinaryProctorLoader(
+                        new ProctorSpecification(), matrixFile, RuleEvaluator.FUNCTION_MAPPER);
+
+        assertThat(loader.doLoad()).isNotNull();
+        assertThat(loader.doLoad()).isNull();
+    }
+}
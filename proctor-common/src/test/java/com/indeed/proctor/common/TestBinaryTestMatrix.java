@@ -0,0 +1,65 @@
+package com.indeed.proctor.common;
+
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestBinaryTestMatrix {
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final TestMatrixArtifact artifact = readExampleMatrix();
+
+        final BinaryTestMatrix matrix = BinaryTestMatrix.read(ByteBuffer.wrap(write(artifact)));
+
+        assertThat(matrix.getAudit().getVersion()).isEqualTo(artifact.getAudit().getVersion());
+        assertThat(matrix.getAudit().getUpdated()).isEqualTo(artifact.getAudit().getUpdated());
+        assertThat(matrix.getAudit().getUpdatedBy())
+                .isEqualTo(artifact.getAudit().getUpdatedBy());
+        assertThat(matrix.getTestNames()).containsExactlyElementsOf(artifact.getTests().keySet());
+        for (final Map.Entry<String, ConsumableTestDefinition> entry :
+                artifact.getTests().entrySet()) {
+            assertThat(matrix.getTest(entry.getKey()))
+                    .as(entry.getKey())
+                    .isEqualTo(entry.getValue());
+        }
+        assertThat(matrix.getTest("null_tst")).isNull();
+        assertThat(matrix.getTest("undefined_tst")).isNull();
+    }
+
+    @Test
+    public void testReadInvalidData() throws IOException {
+        assertThatThrownBy(() -> BinaryTestMatrix.read(ByteBuffer.wrap("{}".getBytes())))
+                .isInstanceOf(IOException.class);
+
+        final byte[] bytes = write(readExampleMatrix());
+        assertThatThrownBy(
+                        () ->
+                                BinaryTestMatrix.read(
+                                        ByteBuffer.wrap(
+                                                Arrays.copyOf(bytes, bytes.length / 10))))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static byte[] write(final TestMatrixArtifact artifact) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinaryTestMatrix.write(artifact, out);
+        return out.toByteArray();
+    }
+
+    private TestMatrixArtifact readExampleMatrix() throws IOException {
+        try (InputStream stream = getClass().getResourceAsStream("example-test-matrix.json")) {
+            return Serializers.lenient().readValue(stream, TestMatrixArtifact.class);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.indeed.proctor.common;
+
+import com.google.common.io.Resources;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestFileProctorLoader {
+    @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private byte[] matrixJson;
+    private File matrixFile;
+    private final AtomicInteger parseCount = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        matrixJson = Resources.toByteArray(getClass().getResource("example-test-matrix.json"));
+        matrixFile = new File(testFolder.getRoot(), "matrix.json");
+        Files.write(matrixFile.toPath(), matrixJson);
+    }
+
+    @Test
+    public void testUnmodifiedFileIsNotRead() throws Exception {
+        final long lastModified = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(1);
+        assertThat(matrixFile.setLastModified(lastModified)).isTrue();
+        final FileProctorLoader loader = createLoader();
+        assertThat(loader.doLoad()).isNotNull();
+
+        // invalid json of the same size, not read as modification time and size are unchanged
+        final byte[] invalidJson = new byte[matrixJson.length];
+        Arrays.fill(invalidJson, (byte) ' ');
+        Files.write(matrixFile.toPath(), invalidJson);
+        assertThat(matrixFile.setLastModified(lastModified)).isTrue();
+
+        assertThat(loader.doLoad()).isNull();
+        assertThat(parseCount).hasValue(1);
+    }
+
+    @Test
+    public void testUnchangedContentIsNotParsed() throws Exception {
+        final FileProctorLoader loader = createLoader();
+        assertThat(loader.doLoad()).isNotNull();
+
+        Files.write(matrixFile.toPath(), matrixJson);
+        assertThat(loader.doLoad()).isNull();
+        assertThat(parseCount).hasValue(1);
+
+        Files.write(matrixFile.toPath(), withVersion("1525"));
+        final Proctor proctor = loader.doLoad();
+        assertThat(proctor).isNotNull();
+        assertThat(proctor.getArtifact().getAudit().getVersion()).isEqualTo("1525");
+        assertThat(parseCount).hasValue(2);
+    }
+
+    @Test
+    public void testWatchReplacedFile() throws Exception {
+        final FileProctorLoader loader = createLoader();
+        assertThat(loader.load()).isTrue();
+        assertThat(loader.get().getArtifact().getAudit().getVersion()).isEqualTo("1524");
+
+        loader.startWatching(10);
+        try {
+            final File tempFile = new File(testFolder.getRoot(), "matrix.json.tmp");
+            Files.write(tempFile.toPath(), withVersion("1525"));
+            Files.move(tempFile.toPath(), matrixFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+            final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+            while (!"1525".equals(loader.get().getArtifact().getAudit().getVersion())
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(loader.get().getArtifact().getAudit().getVersion()).isEqualTo("1525");
+        } finally {
+            loader.stopWatching();
+        }
+    }
+
+    private byte[] withVersion(final String version) {
+        return new String(matrixJson, StandardCharsets.UTF_8)
+                .replace("\"version\" : \"1524\"", "\"version\" : \"" + version + "\"")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private FileProctorLoader createLoader() {
+        return new FileProctorLoader(
+                new ProctorSpecification(), matrixFile, RuleEvaluator.FUNCTION_MAPPER) {
+            @Override
+            protected TestMatrixArtifact loadJsonTestMatrix(@Nonnull final Reader reader)
+                    throws IOException, TestMatrixOutdatedException {
+                parseCount.incrementAndGet();
+                return super.loadJsonTestMatrix(reader);
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.indeed.proctor.common;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class TestIndexedSortedMap {
+    private static final TestNameIndex INDEX =
+            new TestNameIndex(ImmutableList.of("c_tst", "a_tst", "d_tst", "b_tst"));
+
+    @Test
+    public void testSameAsTreeMap() {
+        final SortedMap<String, Integer> map = new IndexedSortedMap<>(INDEX);
+        final SortedMap<String, Integer> expected = new TreeMap<>();
+        assertThat(map).isEqualTo(expected).isEmpty();
+        assertThatThrownBy(map::firstKey).isInstanceOf(NoSuchElementException.class);
+
+        for (final String testName : ImmutableList.of("d_tst", "b_tst", "c_tst")) {
+            assertThat(map.put(testName, testName.length()))
+                    .isEqualTo(expected.put(testName, testName.length()));
+        }
+        assertThat(map.put("b_tst", 0)).isEqualTo(expected.put("b_tst", 0));
+        assertThat(map.remove("c_tst")).isEqualTo(expected.remove("c_tst"));
+        assertThat(map.remove("a_tst")).isEqualTo(expected.remove("a_tst"));
+
+        assertThat(map).isEqualTo(expected).hasSameSizeAs(expected);
+        assertThat(map.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(map.toString()).isEqualTo(expected.toString());
+        assertThat(map.keySet()).containsExactly("b_tst", "d_tst");
+        assertThat(map.get("b_tst")).isEqualTo(0);
+        assertThat(map.get("c_tst")).isNull();
+        assertThat(map.containsKey("d_tst")).isTrue();
+        assertThat(map.containsKey("unknown_tst")).isFalse();
+        assertThat(map.firstKey()).isEqualTo("b_tst");
+        assertThat(map.lastKey()).isEqualTo("d_tst");
+    }
+
+    @Test
+    public void testEntryModification() {
+        final SortedMap<String, Integer> map = new IndexedSortedMap<>(INDEX);
+        map.put("a_tst", 1);
+        map.put("b_tst", 2);
+        map.put("c_tst", 3);
+
+        final Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+        iterator.next().setValue(10);
+        iterator.next();
+        iterator.remove();
+
+        assertThat(map).containsExactly(entry("a_tst", 10), entry("c_tst", 3)).hasSize(2);
+        map.clear();
+        assertThat(map).isEmpty();
+    }
+
+    @Test
+    public void testUnindexedKeysAndSubMaps() {
+        final SortedMap<String, Integer> map = new IndexedSortedMap<>(INDEX);
+        map.put("a_tst", 1);
+        map.put("c_tst", 3);
+        map.put("aa_tst", 2);
+
+        assertThat(map).containsExactly(entry("a_tst", 1), entry("aa_tst", 2), entry("c_tst", 3));
+        assertThat(map.headMap("b_tst")).containsOnlyKeys("a_tst", "aa_tst");
+
+        // sub maps are views like in TreeMap
+        map.tailMap("b_tst").clear();
+        assertThat(map).containsOnlyKeys("a_tst", "aa_tst");
+        map.put("d_tst", 4);
+        assertThat(map.lastKey()).isEqualTo("d_tst");
+    }
+}
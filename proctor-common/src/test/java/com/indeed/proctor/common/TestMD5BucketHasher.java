@@ -0,0 +1,73 @@
+package com.indeed.proctor.common;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import java.security.MessageDigest;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestMD5BucketHasher {
+
+    private static final List<String> SALTS =
+            ImmutableList.of("", "testname|testname", "&shared_salt", "日本語|&ユニコード");
+
+    private static final List<String> IDENTIFIERS =
+            ImmutableList.of(
+                    "", "a", "1ctk0000000000000", "someone@example.com", "ünïcödé", "日本語");
+
+    @Test
+    public void testSameHashAsFreshDigest() {
+        for (final String salt : SALTS) {
+            final byte[] saltBytes = salt.getBytes(Charsets.UTF_8);
+            for (final String identifier : IDENTIFIERS) {
+                assertThat(MD5BucketHasher.hash(saltBytes, identifier))
+                        .as("salt '%s', identifier '%s'", salt, identifier)
+                        .isEqualTo(hashWithFreshDigest(salt, identifier));
+            }
+        }
+    }
+
+    @Test
+    public void testSameHashWhenIdentifierChanges() {
+        // same identifier reused across salts like in a request, then switching identifiers
+        for (int i = 0; i < 1000; i++) {
+            final String identifier = "identifier" + (i % 7);
+            final String salt = SALTS.get(i % SALTS.size());
+            assertThat(MD5BucketHasher.hash(salt.getBytes(Charsets.UTF_8), identifier))
+                    .isEqualTo(hashWithFreshDigest(salt, identifier));
+        }
+    }
+
+    @Test
+    public void testSameHashAcrossThreads() throws InterruptedException {
+        final byte[] saltBytes = "&salt".getBytes(Charsets.UTF_8);
+        final int[] results = new int[IDENTIFIERS.size()];
+        final Thread thread =
+                new Thread(
+                        () -> {
+                            for (int i = 0; i < IDENTIFIERS.size(); i++) {
+                                results[i] = MD5BucketHasher.hash(saltBytes, IDENTIFIERS.get(i));
+                            }
+                        });
+        thread.start();
+        thread.join();
+        for (int i = 0; i < IDENTIFIERS.size(); i++) {
+            assertThat(results[i]).isEqualTo(hashWithFreshDigest("&salt", IDENTIFIERS.get(i)));
+        }
+    }
+
+    /** Hashing as done before MD5BucketHasher was introduced */
+    private static int hashWithFreshDigest(final String salt, final String identifier) {
+        final MessageDigest md = ProctorUtils.createMessageDigest();
+        md.update(salt.getBytes(Charsets.UTF_8));
+        md.update(identifier.getBytes(Charsets.UTF_8));
+        final byte[] digest = md.digest();
+        return (0xff & digest[12]) << 24
+                | (0xff & digest[13]) << 16
+                | (0xff & digest[14]) << 8
+                | (0xff & digest[15]);
+    }
+}
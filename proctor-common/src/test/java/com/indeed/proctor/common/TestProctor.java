@@ -398,6 +398,98 @@ public class TestProctor {
                 .containsEntry("Y", testDefinitionY); // keeping Y for backward compatibility
     }
 
+    @Test
+    public void testTestEvaluationStats() {
+        final TestBucket testBucket = new TestBucket("active", 1, "");
+        final ConsumableTestDefinition testDefinition =
+                ConsumableTestDefinition.fromTestDefinition(
+                        TestDefinition.builder()
+                                .setSalt("&X")
+                                .setTestType(TestType.RANDOM)
+                                .addBuckets(testBucket)
+                                .addAllocations(
+                                        new Allocation(
+                                                "${lang == 'en'}",
+                                                ImmutableList.of(new Range(1, 1.0)),
+                                                "#A1"),
+                                        new Allocation(
+                                                "", ImmutableList.of(new Range(1, 1.0)), "#B1"))
+                                .build());
+        final ConsumableTestDefinition failingTestDefinition =
+                ConsumableTestDefinition.fromTestDefinition(
+                        TestDefinition.builder()
+                                .setSalt("&Y")
+                                .setTestType(TestType.RANDOM)
+                                .addBuckets(testBucket)
+                                .addAllocations(
+                                        new Allocation(
+                                                "${lang + 1 > 0}",
+                                                ImmutableList.of(new Range(1, 1.0)),
+                                                "#C1"))
+                                .build());
+        final TestMatrixArtifact matrix = new TestMatrixArtifact();
+        matrix.setTests(ImmutableMap.of("x_tst", testDefinition, "y_tst", failingTestDefinition));
+        matrix.setAudit(new Audit());
+        final ProctorResultReporter reporter =
+                new ProctorResultReporter() {
+                    @Override
+                    public void reportTotalEvaluatedTests(final ProctorResult result) {}
+
+                    @Override
+                    public void reportFallbackTests(final ProctorResult result) {}
+
+                    @Override
+                    public void reportInvalidIdentifierTests(
+                            final ProctorResult result,
+                            final Map<TestType, Integer> testTypesWithInvalidIdentifier) {}
+
+                    @Override
+                    public int getTestEvaluationSampleRate() {
+                        return 1;
+                    }
+                };
+
+        final Proctor proctor =
+                Proctor.construct(
+                        matrix,
+                        ProctorLoadResult.emptyResult(),
+                        RuleEvaluator.FUNCTION_MAPPER,
+                        new IdentifierValidator.Noop(),
+                        reporter);
+        final Identifiers identifiers = new Identifiers(Collections.emptyMap(), true);
+        for (final String lang : ImmutableList.of("en", "de", "en")) {
+            proctor.determineTestGroups(
+                    identifiers, ImmutableMap.of("lang", lang), Collections.emptyMap());
+        }
+
+        final Map<String, TestEvaluationStats> stats = proctor.getTestEvaluationStats();
+        assertThat(stats).containsOnlyKeys("x_tst", "y_tst");
+        final TestEvaluationStats testStats = stats.get("x_tst");
+        assertThat(testStats.getEvaluations()).isEqualTo(3);
+        assertThat(testStats.getFallbacks()).isEqualTo(0);
+        assertThat(testStats.getRuleErrors()).isEqualTo(0);
+        assertThat(testStats.getSampledEvaluations()).isEqualTo(3);
+        assertThat(testStats.getAllocationHits()).containsExactly(2, 1);
+        final TestEvaluationStats failingTestStats = stats.get("y_tst");
+        assertThat(failingTestStats.getEvaluations()).isEqualTo(3);
+        assertThat(failingTestStats.getFallbacks()).isEqualTo(3);
+        assertThat(failingTestStats.getRuleErrors()).isEqualTo(3);
+        assertThat(failingTestStats.getAllocationHits()).containsExactly(0);
+
+        // only rule errors are counted without reporter
+        final Proctor proctorWithoutReporter =
+                Proctor.construct(matrix, null, RuleEvaluator.FUNCTION_MAPPER);
+        proctorWithoutReporter.determineTestGroups(
+                identifiers, ImmutableMap.of("lang", "en"), Collections.emptyMap());
+        final Map<String, TestEvaluationStats> statsWithoutReporter =
+                proctorWithoutReporter.getTestEvaluationStats();
+        assertThat(statsWithoutReporter).containsOnlyKeys("x_tst", "y_tst");
+        assertThat(statsWithoutReporter.get("x_tst").getEvaluations()).isEqualTo(0);
+        assertThat(statsWithoutReporter.get("x_tst").getAllocationHits()).containsExactly(0, 0);
+        assertThat(statsWithoutReporter.get("y_tst").getEvaluations()).isEqualTo(0);
+        assertThat(statsWithoutReporter.get("y_tst").getRuleErrors()).isEqualTo(1);
+    }
+
     @Test
     public void testDetermineTestGroupsWithInvalidIdentifier() {
         final TestBucket inactivetestBucket = new TestBucket("inactive", -1, "");
@@ -1132,6 +1224,57 @@ public class TestProctor {
         ;
     }
 
+    @Test
+    public void testConstruct_reusesChoosersOfUnchangedTests() {
+        final IdentifierValidator identifierValidator = new IdentifierValidator.Noop();
+        final Proctor previous =
+                Proctor.construct(
+                        createThreeFakeTests(),
+                        ProctorLoadResult.emptyResult(),
+                        RuleEvaluator.FUNCTION_MAPPER,
+                        identifierValidator,
+                        null);
+
+        final TestMatrixArtifact changedMatrix = createThreeFakeTests();
+        changedMatrix.getTests().get("two").setDescription("changed");
+        final Proctor proctor =
+                Proctor.construct(
+                        changedMatrix,
+                        ProctorLoadResult.emptyResult(),
+                        RuleEvaluator.FUNCTION_MAPPER,
+                        identifierValidator,
+                        null,
+                        previous);
+
+        assertThat(proctor.getTestChooser("one")).isSameAs(previous.getTestChooser("one"));
+        assertThat(proctor.getTestChooser("three")).isSameAs(previous.getTestChooser("three"));
+        assertThat(proctor.getTestChooser("two")).isNotSameAs(previous.getTestChooser("two"));
+        assertThat(proctor.getTestChooser("two").getTestDefinition().getDescription())
+                .isEqualTo("changed");
+    }
+
+    @Test
+    public void testConstruct_doesNotReuseChoosersOfOtherFunctionMapper() {
+        final IdentifierValidator identifierValidator = new IdentifierValidator.Noop();
+        final Proctor previous =
+                Proctor.construct(
+                        createThreeFakeTests(),
+                        ProctorLoadResult.emptyResult(),
+                        RuleEvaluator.defaultFunctionMapperBuilder().build(),
+                        identifierValidator,
+                        null);
+        final Proctor proctor =
+                Proctor.construct(
+                        createThreeFakeTests(),
+                        ProctorLoadResult.emptyResult(),
+                        RuleEvaluator.FUNCTION_MAPPER,
+                        identifierValidator,
+                        null,
+                        previous);
+
+        assertThat(proctor.getTestChooser("one")).isNotSameAs(previous.getTestChooser("one"));
+    }
+
     private static TestMatrixArtifact createTestMatrixWithOneRandomTest(final String testName) {
         final TestMatrixArtifact matrix = new TestMatrixArtifact();
         final ConsumableTestDefinition testDefinition = new ConsumableTestDefinition();
@@ -1,11 +1,16 @@
 package com.indeed.proctor.common;
 
+import com.indeed.util.core.ReleaseVersion;
 import org.junit.Test;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TestProctorRuleFunctions {
@@ -24,4 +29,56 @@ public class TestProctorRuleFunctions {
         assertFalse(ProctorRuleFunctions.contains(Arrays.asList(1, 2, 3), null));
         assertFalse(ProctorRuleFunctions.contains(Collections.emptyList(), 1));
     }
+
+    @Test
+    public void testContainsIndexedConstants() {
+        final List<Object> constants = Arrays.asList(1, 2L, 3.0, "4", null, Long.MAX_VALUE);
+        final IndexedConstantList<Object> indexed = new IndexedConstantList<>(constants);
+        assertEquals(constants, indexed);
+
+        for (final Object element :
+                Arrays.asList(
+                        1, 1L, (short) 2, 2, 3, 3.0, 3.0f, "4", 4, null, Long.MAX_VALUE, -1, 0)) {
+            assertEquals(
+                    "contains " + element,
+                    ProctorRuleFunctions.contains(constants, element),
+                    ProctorRuleFunctions.contains(indexed, element));
+        }
+        assertFalse(
+                ProctorRuleFunctions.contains(
+                        new IndexedConstantList<>(Collections.emptyList()), 0));
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(ProctorRuleFunctions.matches("Mozilla/5.0 (iPhone)", ".*iPhone.*"));
+        assertFalse(ProctorRuleFunctions.matches("Mozilla/5.0 (iPhone)", "iPhone"));
+        // compiled patterns are reused
+        assertSame(
+                ProctorRuleFunctions.compilePattern(".*iPhone.*"),
+                ProctorRuleFunctions.compilePattern(".*iPhone.*"));
+    }
+
+    @Test(expected = PatternSyntaxException.class)
+    public void testMatchesInvalidRegex() {
+        ProctorRuleFunctions.matches("value", "[");
+    }
+
+    @Test
+    public void testVersionInRange() {
+        final ReleaseVersion version = ReleaseVersion.fromString("1.2.3.4");
+        assertTrue(ProctorRuleFunctions.versionInRange(version, "1.2.x", "1.3.0.0"));
+        assertFalse(ProctorRuleFunctions.versionInRange(version, "1.3.x", "1.4.0.0"));
+        assertEquals(0, version.compareTo(ProctorRuleFunctions.version("1.2.3.4")));
+        // parsed versions are reused
+        assertSame(
+                ProctorRuleFunctions.parseVersion("1.3.0.0"),
+                ProctorRuleFunctions.parseVersion("1.3.0.0"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testVersionInRangeWildcardUpperBound() {
+        ProctorRuleFunctions.versionInRange(
+                ReleaseVersion.fromString("1.2.3.4"), "1.2.x", "1.3.x");
+    }
 }
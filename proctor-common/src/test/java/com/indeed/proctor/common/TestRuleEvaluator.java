@@ -735,4 +735,87 @@ public class TestRuleEvaluator {
                 ruleEvaluator.evaluateBooleanRulePartial(
                         rule, ImmutableMap.of("country", "US", "adFormat", "mob")));
     }
+
+    @Test
+    public void testCompiledRuleIsReusableAcrossContexts() {
+        final RuleEvaluator.CompiledRule compiledRule =
+                ruleEvaluator.compileBooleanRule(
+                        "${proctor:contains(LANGUAGES_ENABLED, lang) && country == 'US'}");
+        assertTrue(evaluateCompiled(compiledRule, ImmutableMap.of("lang", "en", "country", "US")));
+        assertFalse(evaluateCompiled(compiledRule, ImmutableMap.of("lang", "ja", "country", "US")));
+        assertFalse(evaluateCompiled(compiledRule, ImmutableMap.of("lang", "fr", "country", "GB")));
+        assertTrue(evaluateCompiled(compiledRule, ImmutableMap.of("lang", "de", "country", "US")));
+    }
+
+    @Test
+    public void testCompiledRuleSameAsEvaluated() {
+        final Map<String, Object> context =
+                ImmutableMap.of("context", new Temp(), "country", "US", "lang", "en");
+        for (final String rule :
+                ImmutableList.of(
+                        "",
+                        "${}",
+                        "${true}",
+                        "${ FALSE }",
+                        "true",
+                        "${lang == 'en'}",
+                        "${!(lang == 'fr')}",
+                        "${country == 'US' && context.isValid()}",
+                        "${country == 'US' && context.isFortyTwo('47')}")) {
+            assertThat(evaluateCompiled(ruleEvaluator.compileBooleanRule(rule), context))
+                    .as("rule '%s'", rule)
+                    .isEqualTo(ruleEvaluator.evaluateBooleanRule(rule, context));
+        }
+    }
+
+    @Test
+    public void testCompiledRuleErrorsOnEvaluation() {
+        // non-boolean rules and undefined variables only fail on evaluation, like uncompiled rules
+        final RuleEvaluator.CompiledRule nonBoolean = ruleEvaluator.compileBooleanRule("${lang}");
+        assertThatThrownBy(() -> evaluateCompiled(nonBoolean, singletonMap("lang", "en")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Received non-boolean return value");
+
+        final RuleEvaluator.CompiledRule undefined =
+                ruleEvaluator.compileBooleanRule("${lang == 'en'}");
+        assertThatThrownBy(() -> evaluateCompiled(undefined, emptyMap()))
+                .isInstanceOf(ELException.class);
+
+        final RuleEvaluator.CompiledRule syntaxError =
+                ruleEvaluator.compileBooleanRule("${lang == }");
+        assertThatThrownBy(() -> evaluateCompiled(syntaxError, singletonMap("lang", "en")))
+                .isInstanceOf(ELException.class);
+    }
+
+    @Test
+    public void testCompiledLiteralArgumentsAreNotEvicted() {
+        final String regex = "^[a-z]{2}-literal$";
+        final RuleEvaluator.CompiledRule compiledRule =
+                ruleEvaluator.compileBooleanRule(
+                        "${proctor:matches(lang, '" + regex + "')"
+                                + " && proctor:versionInRange(version, '1.2.x', '7.8.9.0')}");
+        final Map<String, Object> context =
+                ImmutableMap.of(
+                        "lang", "en-literal", "version", ReleaseVersion.fromString("3.0.0.0"));
+        final Object pattern = ProctorRuleFunctions.compilePattern(regex);
+        final Object version = ProctorRuleFunctions.parseVersion("7.8.9.0");
+
+        // dynamic arguments filling the bounded caches
+        for (int i = 0; i <= ProctorRuleFunctions.MAXIMUM_CACHED_ARGUMENTS; i++) {
+            ProctorRuleFunctions.compilePattern("dynamic" + i);
+            ProctorRuleFunctions.parseVersion("1.2.3." + i);
+        }
+
+        assertThat(ProctorRuleFunctions.compilePattern(regex)).isSameAs(pattern);
+        assertThat(ProctorRuleFunctions.parseVersion("7.8.9.0")).isSameAs(version);
+        assertTrue(evaluateCompiled(compiledRule, context));
+    }
+
+    private boolean evaluateCompiled(
+            final RuleEvaluator.CompiledRule compiledRule, final Map<String, Object> values) {
+        return compiledRule.evaluate(
+                ruleEvaluator.createCompiledRuleElContext(
+                        ProctorUtils.convertToValueExpressionMap(
+                                RuleEvaluator.EXPRESSION_FACTORY, values)));
+    }
 }
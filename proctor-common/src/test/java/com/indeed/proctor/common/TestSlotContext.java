@@ -0,0 +1,130 @@
+package com.indeed.proctor.common;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Test;
+
+import javax.el.ValueExpression;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class TestSlotContext {
+    private static final ContextSlots SLOTS = ContextSlots.of(ImmutableList.of("lang", "country"));
+
+    @Test
+    public void testSameAsHashMap() {
+        final Map<String, Object> context = SLOTS.newContext(new Object[] {"en", null});
+        final Map<String, Object> expected = new HashMap<>();
+        expected.put("lang", "en");
+        expected.put("country", null);
+        assertThat(context).isEqualTo(expected).containsKey("country");
+
+        assertThat(context.put("lang", "ja")).isEqualTo(expected.put("lang", "ja"));
+        assertThat(context.put("ua", "IE")).isEqualTo(expected.put("ua", "IE"));
+        assertThat(context.remove("country")).isEqualTo(expected.remove("country"));
+        assertThat(context.remove("country")).isEqualTo(expected.remove("country"));
+
+        assertThat(context).isEqualTo(expected).hasSameSizeAs(expected);
+        assertThat(context.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(context.containsKey("country")).isFalse();
+        assertThat(context.get("lang")).isEqualTo("ja");
+        assertThat(context.get("unknown")).isNull();
+    }
+
+    @Test
+    public void testClear() {
+        final Map<String, Object> context = SLOTS.newContext(new Object[] {"en", "US"});
+        context.put("ua", "IE");
+        context.clear();
+
+        assertThat(context).isEmpty();
+        assertThat(context.containsKey("lang")).isFalse();
+        context.put("country", "JP");
+        assertThat(context).containsOnly(entry("country", "JP"));
+    }
+
+    @Test
+    public void testRemoveThroughViews() {
+        final Map<String, Object> context = SLOTS.newContext(new Object[] {"en", "US"});
+        context.put("ua", "IE");
+        context.put("device", "phone");
+
+        assertThat(context.keySet().remove("lang")).isTrue();
+        assertThat(context.keySet().remove("lang")).isFalse();
+        assertThat(context.entrySet().removeIf(e -> "IE".equals(e.getValue()))).isTrue();
+        assertThat(context).containsOnly(entry("country", "US"), entry("device", "phone"));
+
+        assertThat(context.keySet().retainAll(ImmutableList.of("device"))).isTrue();
+        assertThat(context).containsOnly(entry("device", "phone"));
+        assertThat(context.containsKey("country")).isFalse();
+
+        final Iterator<String> iterator = context.keySet().iterator();
+        assertThatThrownBy(iterator::remove).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testSetValueOfEntries() {
+        final Map<String, Object> context = SLOTS.newContext(new Object[] {"en", "US"});
+        context.put("ua", "IE");
+
+        for (final Map.Entry<String, Object> e : context.entrySet()) {
+            assertThat(e.setValue(e.getKey() + "-new")).isNotNull();
+        }
+        assertThat(context)
+                .containsOnly(
+                        entry("lang", "lang-new"),
+                        entry("country", "country-new"),
+                        entry("ua", "ua-new"));
+        context.replaceAll((key, value) -> null);
+        assertThat(context).hasSize(3).containsEntry("lang", null);
+    }
+
+    @Test
+    public void testNewContextRequiresAllValues() {
+        assertThatThrownBy(() -> SLOTS.newContext(new Object[] {"en"}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ContextSlots.of(ImmutableList.of("lang", "lang")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testSingleArrayVariable() {
+        final String[] languages = {"en", "ja"};
+        final Object[] values = {languages};
+        final Map<String, Object> context =
+                ContextSlots.of(ImmutableList.of("languages")).newContext(values);
+        assertThat(context.get("languages")).isSameAs(languages);
+
+        // values are copied
+        values[0] = null;
+        assertThat(context.get("languages")).isSameAs(languages);
+    }
+
+    @Test
+    public void testValueExpressionMap() {
+        final SlotContext context = SLOTS.newContext(new Object[] {"en", null});
+        context.put("ua", "IE");
+        final Map<String, ValueExpression> expressions =
+                context.toValueExpressionMap(RuleEvaluator.EXPRESSION_FACTORY);
+        final Map<String, ValueExpression> expected =
+                ProctorUtils.convertToValueExpressionMap(RuleEvaluator.EXPRESSION_FACTORY, context);
+
+        assertThat(expressions.keySet()).isEqualTo(expected.keySet());
+        assertThat(expressions.get("lang")).isSameAs(expressions.get("lang"));
+        assertThat(expressions.get("country")).isNotNull();
+        assertThat(expressions.get("unknown")).isNull();
+
+        final ValueExpression value =
+                RuleEvaluator.EXPRESSION_FACTORY.createValueExpression(true, Object.class);
+        expressions.put(ProctorUtils.UNITLESS_ALLOCATION_IDENTIFIER, value);
+        expressions.put("lang", value);
+        assertThat(expressions.get(ProctorUtils.UNITLESS_ALLOCATION_IDENTIFIER)).isSameAs(value);
+        assertThat(expressions.get("lang")).isSameAs(value);
+        assertThat(context).doesNotContainKey(ProctorUtils.UNITLESS_ALLOCATION_IDENTIFIER);
+        assertThat(context.get("lang")).isEqualTo("en");
+    }
+}
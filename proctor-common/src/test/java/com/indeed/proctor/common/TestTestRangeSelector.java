@@ -10,6 +10,7 @@ import com.indeed.proctor.common.model.TestDependency;
 import com.indeed.proctor.common.model.TestType;
 import org.junit.Test;
 
+import javax.el.ValueExpression;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -139,6 +140,45 @@ public class TestTestRangeSelector {
                 .isEqualTo(-1);
     }
 
+    @Test
+    public void testFindMatchingRuleWithValueExpr_reusesCompiledRules() {
+        final TestRangeSelector selector =
+                createTestRangeSelector(
+                        stubTestDefinition(Arrays.asList("country == 'US'", "lang == 'en'"))
+                                .setRule("var == 1")
+                                .build());
+        assertThat(
+                        selector.findMatchingRuleWithValueExpr(
+                                toValueExpressions(
+                                        ImmutableMap.of("country", "US", "lang", "ja", "var", 1)),
+                                emptyMap(),
+                                ""))
+                .isEqualTo(0);
+        assertThat(
+                        selector.findMatchingRuleWithValueExpr(
+                                toValueExpressions(
+                                        ImmutableMap.of("country", "JP", "lang", "en", "var", 1)),
+                                emptyMap(),
+                                ""))
+                .isEqualTo(1);
+        assertThat(
+                        selector.findMatchingRuleWithValueExpr(
+                                toValueExpressions(
+                                        ImmutableMap.of("country", "US", "lang", "en", "var", 0)),
+                                emptyMap(),
+                                ""))
+                .isEqualTo(-1);
+        assertThat(
+                        selector.findMatchingRuleWithValueExpr(
+                                toValueExpressions(ImmutableMap.of("var", 1)), emptyMap(), ""))
+                .isEqualTo(-1);
+    }
+
+    private static Map<String, ValueExpression> toValueExpressions(
+            final Map<String, Object> values) {
+        return ProctorUtils.convertToValueExpressionMap(RuleEvaluator.EXPRESSION_FACTORY, values);
+    }
+
     private static TestDefinition.Builder stubTestDefinition(final List<String> allocationRules) {
         return stubTestDefinition(allocationRules, false);
     }
@@ -0,0 +1,106 @@
+package com.indeed.proctor.common;
+
+import com.google.common.io.Resources;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestUrlProctorLoader {
+    private static final String ETAG = "\"v1524\"";
+
+    private HttpServer server;
+    private byte[] matrixJson;
+    private final List<Integer> responseCodes = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean servedGzip;
+
+    @Before
+    public void setUp() throws IOException {
+        matrixJson = Resources.toByteArray(getClass().getResource("example-test-matrix.json"));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/matrix.json", this::handle);
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConditionalRequests() throws Exception {
+        final UrlProctorLoader loader = createLoader();
+        loader.setConditionalRequestsEnabled(true);
+
+        assertThat(loader.doLoad()).isNotNull();
+        assertThat(loader.doLoad()).isNull();
+        assertThat(responseCodes)
+                .containsExactly(HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_NOT_MODIFIED);
+    }
+
+    @Test
+    public void testConditionalRequestsDisabled() throws Exception {
+        final UrlProctorLoader loader = createLoader();
+
+        assertThat(loader.doLoad()).isNotNull();
+        assertThat(loader.doLoad()).isNull();
+        assertThat(responseCodes)
+                .containsExactly(HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_OK);
+    }
+
+    @Test
+    public void testGzipResponse() throws Exception {
+        final UrlProctorLoader loader = createLoader();
+
+        final Proctor proctor = loader.doLoad();
+        assertThat(proctor).isNotNull();
+        assertThat(proctor.getArtifact().getAudit().getVersion()).isEqualTo("1524");
+        assertThat(servedGzip).isTrue();
+    }
+
+    private UrlProctorLoader createLoader() throws IOException {
+        return new UrlProctorLoader(
+                new ProctorSpecification(),
+                new URL("http://localhost:" + server.getAddress().getPort() + "/matrix.json"));
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                responseCodes.add(HttpURLConnection.HTTP_NOT_MODIFIED);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("ETag", ETAG);
+            final boolean gzip =
+                    "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+            if (gzip) {
+                servedGzip = true;
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            responseCodes.add(HttpURLConnection.HTTP_OK);
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, 0);
+            try (OutputStream body =
+                    gzip
+                            ? new GZIPOutputStream(exchange.getResponseBody())
+                            : exchange.getResponseBody()) {
+                body.write(matrixJson);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -19,6 +19,7 @@ import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -490,26 +491,42 @@ public abstract class AbstractGroups {
                 proctorResult.getTestDefinitions();
         // following lines should preserve the order in the map to ensure logging values are stable
         final Map<String, TestBucket> buckets = proctorResult.getBuckets();
-        final Set<String> winningPayloadExperiments =
-                proctorResult.getProperties().values().stream()
-                        .map(PayloadProperty::getTestName)
-                        .collect(Collectors.toSet());
-        return buckets.keySet().stream()
-                .filter(
-                        testName -> {
-                            final ConsumableTestDefinition consumableTestDefinition =
-                                    testDefinitions.get(testName);
-                            // fallback to non-silent when test definition is not available
-                            return (consumableTestDefinition == null)
-                                    || !consumableTestDefinition.getSilent();
-                        })
-                .filter(testName -> loggablePayloadExperiment(testName, winningPayloadExperiments))
-                // Suppress 100% allocation logging
-                .filter(this::loggableAllocation)
-                // call to getValueWithouMarkingUsage() to allow overrides of getActiveBucket, but
-                // avoid marking
-                .filter(testName -> getValueWithoutMarkingUsage(testName, -1) >= 0)
-                .collect(Collectors.toList());
+        final List<String> testNames = new ArrayList<>(buckets.size());
+        // only collected if a payload experiment is determined
+        Set<String> winningPayloadExperiments = null;
+        for (final String testName : buckets.keySet()) {
+            final ConsumableTestDefinition consumableTestDefinition =
+                    testDefinitions.get(testName);
+            // fallback to non-silent when test definition is not available
+            if ((consumableTestDefinition != null) && consumableTestDefinition.getSilent()) {
+                continue;
+            }
+            if ((consumableTestDefinition != null)
+                    && (consumableTestDefinition.getPayloadExperimentConfig() != null)) {
+                if (winningPayloadExperiments == null) {
+                    winningPayloadExperiments = getWinningPayloadExperiments();
+                }
+                if (!winningPayloadExperiments.contains(testName)) {
+                    continue;
+                }
+            }
+            // Suppress 100% allocation logging
+            if (!loggableAllocation(testName, consumableTestDefinition, proctorResult)) {
+                continue;
+            }
+            // call to getValueWithouMarkingUsage() to allow overrides of getActiveBucket, but
+            // avoid marking
+            if (getValueWithoutMarkingUsage(testName, -1) >= 0) {
+                testNames.add(testName);
+            }
+        }
+        return testNames;
+    }
+
+    private Set<String> getWinningPayloadExperiments() {
+        return proctorResult.getProperties().values().stream()
+                .map(PayloadProperty::getTestName)
+                .collect(Collectors.toSet());
     }
 
     /**
@@ -547,38 +564,30 @@ public abstract class AbstractGroups {
             getActiveBucketWithoutMarkingUsage(testName)
                     .ifPresent(
                             testBucket -> {
+                                final TestGroupFragments fragments =
+                                        TestGroupFragments.of(
+                                                testName,
+                                                proctorResult.getTestDefinitions().get(testName));
                                 // no allocation might exist for this testbucket
                                 final Allocation allocation =
                                         proctorResult.getAllocations().get(testName);
                                 // null allocation equals forced group -> log in legacy format
                                 // [test name + bucket value]
                                 if (allocation == null) {
-                                    sb.append(testName)
-                                            .append(testBucket.getValue())
+                                    sb.append(fragments.withoutAllocationId(testBucket.getValue()))
                                             .append(separator);
 
                                 } else if (!Strings.isNullOrEmpty(allocation.getId())) {
-                                    sb.append(allocation.getId())
-                                            .append(ALLOCATION_GROUP_SEPARATOR)
-                                            .append(testName)
-                                            .append(testBucket.getValue())
+                                    sb.append(
+                                                    fragments.withAllocationId(
+                                                            allocation.getId(),
+                                                            testBucket.getValue()))
                                             .append(separator);
                                 }
                             });
         }
     }
 
-    private boolean loggableAllocation(final String testName) {
-        final ConsumableTestDefinition td = proctorResult.getTestDefinitions().get(testName);
-        return loggableAllocation(testName, td, proctorResult);
-    }
-
-    private boolean loggablePayloadExperiment(
-            final String testName, final Set<String> validPayloadExperiments) {
-        final ConsumableTestDefinition td = proctorResult.getTestDefinitions().get(testName);
-        return loggablePayloadExperiment(testName, td, validPayloadExperiments);
-    }
-
     public static boolean loggablePayloadExperiment(
             final String testName,
             @Nullable final ConsumableTestDefinition td,
@@ -94,8 +94,13 @@ public class ProctorGroupsWriter {
                 // allocation should never be null, guarding against NPE anyway
                 // id can be blank for historical data
                 final int lengthBefore = stringBuilder.length();
-                formatter.appendProctorTestGroup(
-                        stringBuilder, testName, allocId, proctorResult.getBuckets().get(testName));
+                appendProctorTestGroup(
+                        stringBuilder,
+                        formatter,
+                        testName,
+                        allocId,
+                        proctorResult.getBuckets().get(testName),
+                        proctorResult.getTestDefinitions().get(testName));
                 // append separator unless formatter did not append anything
                 if (lengthBefore < stringBuilder.length()) {
                     stringBuilder.append(groupsSeparator);
@@ -109,6 +114,35 @@ public class ProctorGroupsWriter {
         return stringBuilder.toString();
     }
 
+    /**
+     * appends the group like the formatter, using precomputed fragments for the formats of {@link
+     * TestGroupFormatter#WITH_ALLOC_ID} and {@link TestGroupFormatter#WITHOUT_ALLOC_ID}
+     */
+    private static void appendProctorTestGroup(
+            final StringBuilder stringBuilder,
+            final TestGroupFormatter formatter,
+            final String testName,
+            final String allocId,
+            final TestBucket testBucket,
+            @Nullable final ConsumableTestDefinition testDefinition) {
+        if (formatter == TestGroupFormatter.WITHOUT_ALLOC_ID) {
+            stringBuilder.append(
+                    TestGroupFragments.of(testName, testDefinition)
+                            .withoutAllocationId(testBucket.getValue()));
+        } else if (formatter == TestGroupFormatter.WITH_ALLOC_ID) {
+            if (allocId.isEmpty()) {
+                return;
+            }
+            final TestGroupFragments fragments = TestGroupFragments.of(testName, testDefinition);
+            stringBuilder.append(
+                    allocId.equals("force")
+                            ? fragments.withoutAllocationId(testBucket.getValue())
+                            : fragments.withAllocationId(allocId, testBucket.getValue()));
+        } else {
+            formatter.appendProctorTestGroup(stringBuilder, testName, allocId, testBucket);
+        }
+    }
+
     public static class Builder {
         private final TestGroupFormatter[] formatters;
         private char groupSeparator = DEFAULT_GROUPS_SEPARATOR;
@@ -0,0 +1,101 @@
+package com.indeed.proctor.consumer;
+
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.indeed.proctor.common.model.Allocation;
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.TestBucket;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Logged strings of the groups of a test, like "#A1:testname1" or "testname1", precomputed for all
+ * allocations and buckets of a test definition, so that logging the groups of a request
+ * concatenates cached strings instead of formatting each group again.
+ *
+ * <p>Fragments are cached per test definition instance, which are shared by all results of the
+ * same Proctor and weakly referenced, so that fragments are dropped with the Proctor. Groups not in
+ * the definition, e.g. of tests without definition, are formatted on each call as before.
+ */
+final class TestGroupFragments {
+    private static final Cache<ConsumableTestDefinition, TestGroupFragments> CACHE =
+            CacheBuilder.newBuilder().weakKeys().build();
+
+    @Nonnull private final String testName;
+    /** [test name + bucket value] by bucket value */
+    @Nonnull private final Map<Integer, String> withoutAllocationId;
+    /** [allocation id + ":" + test name + bucket value] by allocation id and bucket value */
+    @Nonnull private final Map<String, Map<Integer, String>> withAllocationId;
+
+    private TestGroupFragments(
+            @Nonnull final String testName, @Nullable final ConsumableTestDefinition definition) {
+        this.testName = testName;
+        if (definition == null) {
+            withoutAllocationId = Collections.emptyMap();
+            withAllocationId = Collections.emptyMap();
+            return;
+        }
+        withoutAllocationId = new HashMap<>();
+        for (final TestBucket bucket : definition.getBuckets()) {
+            withoutAllocationId.put(
+                    bucket.getValue(), formatWithoutAllocationId(bucket.getValue()));
+        }
+        withAllocationId = new HashMap<>();
+        for (final Allocation allocation : definition.getAllocations()) {
+            final String allocationId = allocation.getId();
+            if (Strings.isNullOrEmpty(allocationId)) {
+                continue;
+            }
+            final Map<Integer, String> fragments = new HashMap<>();
+            for (final TestBucket bucket : definition.getBuckets()) {
+                fragments.put(
+                        bucket.getValue(), formatWithAllocationId(allocationId, bucket.getValue()));
+            }
+            withAllocationId.put(allocationId, fragments);
+        }
+    }
+
+    /** @return fragments of the test, shared for the same definition */
+    @Nonnull
+    static TestGroupFragments of(
+            @Nonnull final String testName, @Nullable final ConsumableTestDefinition definition) {
+        if (definition == null) {
+            return new TestGroupFragments(testName, null);
+        }
+        final TestGroupFragments fragments =
+                CACHE.asMap()
+                        .computeIfAbsent(definition, d -> new TestGroupFragments(testName, d));
+        // a definition shared by several test names is only cached for one of them
+        return fragments.testName.equals(testName)
+                ? fragments
+                : new TestGroupFragments(testName, null);
+    }
+
+    /** @return test name + bucket value */
+    @Nonnull
+    String withoutAllocationId(final int bucketValue) {
+        final String fragment = withoutAllocationId.get(bucketValue);
+        return (fragment == null) ? formatWithoutAllocationId(bucketValue) : fragment;
+    }
+
+    /** @return allocation id + ":" + test name + bucket value */
+    @Nonnull
+    String withAllocationId(@Nonnull final String allocationId, final int bucketValue) {
+        final Map<Integer, String> fragments = withAllocationId.get(allocationId);
+        final String fragment = (fragments == null) ? null : fragments.get(bucketValue);
+        return (fragment == null) ? formatWithAllocationId(allocationId, bucketValue) : fragment;
+    }
+
+    private String formatWithoutAllocationId(final int bucketValue) {
+        return testName + bucketValue;
+    }
+
+    private String formatWithAllocationId(final String allocationId, final int bucketValue) {
+        return allocationId + AbstractGroups.ALLOCATION_GROUP_SEPARATOR + testName + bucketValue;
+    }
+}
@@ -2,6 +2,11 @@ package com.indeed.proctor.consumer.spring;
 
 import com.google.common.base.Throwables;
 import com.indeed.proctor.common.AbstractProctorLoader;
+import com.indeed.proctor.common.ForceGroupsOptions;
+import com.indeed.proctor.common.Identifiers;
+import com.indeed.proctor.common.Proctor;
+import com.indeed.proctor.common.ProctorResult;
+import com.indeed.proctor.consumer.AbstractGroups;
 import org.springframework.beans.BeanWrapper;
 import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -12,6 +17,9 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Take a random sampling of group determinations for a test or set of tests.
@@ -28,6 +36,12 @@ import java.io.IOException;
  * <p>Override {@link #resolveContext} and {@link #printProctorContext} to provide an implementation
  * of context resolving that doesn't use reflection.
  *
+ * <p>By default, groups of all tests are determined for each sample. To determine only the sampled
+ * tests and the tests they depend on, override {@link #getRandomGroups(Object, Identifiers, Set)}
+ * to pass the test names as testNameFilter to the groups manager. {@link
+ * #determineGroupsOfTests} does so without a groups manager, for contexts whose properties match
+ * the specification's providedContext.
+ *
  * <p>The page will be mapped at /sampleRandomGroups under wherever the controller is mapped.
  *
  * @author jsgroth
@@ -35,11 +49,13 @@ import java.io.IOException;
 public abstract class AbstractSampleRandomGroupsController<ProctorContext>
         implements SampleRandomGroupsHttpHandler.ContextSupplier<ProctorContext> {
 
+    private final AbstractProctorLoader proctorLoader;
     private final Class<ProctorContext> contextClass;
     private final SampleRandomGroupsHttpHandler handler;
 
     protected AbstractSampleRandomGroupsController(
             final AbstractProctorLoader proctorLoader, final Class<ProctorContext> contextClass) {
+        this.proctorLoader = proctorLoader;
         this.handler = new SampleRandomGroupsHttpHandler<ProctorContext>(proctorLoader, this);
         this.contextClass = contextClass;
     }
@@ -79,6 +95,45 @@ public abstract class AbstractSampleRandomGroupsController<ProctorContext>
         return proctorContext;
     }
 
+    /**
+     * Determines groups of the given tests and the tests they depend on, like a groups manager
+     * given the tests as testNameFilter, with the bean properties of the context object as context.
+     * Values are passed as they are, without the conversions and bucket overrides of a generated
+     * groups manager, so this is only suitable if the properties match the specification's
+     * providedContext. Falls back to {@link #getRandomGroups(Object, Identifiers)} if no test
+     * matrix is loaded.
+     */
+    protected AbstractGroups determineGroupsOfTests(
+            final ProctorContext proctorContext,
+            final Identifiers identifiers,
+            final Set<String> testNames) {
+        final Proctor proctor = proctorLoader.get();
+        if (proctor == null) {
+            return getRandomGroups(proctorContext, identifiers);
+        }
+        final ProctorResult result =
+                proctor.determineTestGroups(
+                        identifiers,
+                        getContextMap(proctorContext),
+                        ForceGroupsOptions.empty(),
+                        testNames);
+        return new AbstractGroups(result) {};
+    }
+
+    // bean properties of the context object by name, as passed to determineBuckets of a groups
+    // manager
+    private static Map<String, Object> getContextMap(final Object proctorContext) {
+        final Map<String, Object> context = new HashMap<>();
+        final BeanWrapper beanWrapper = new BeanWrapperImpl(proctorContext);
+        for (final PropertyDescriptor descriptor : beanWrapper.getPropertyDescriptors()) {
+            final String propertyName = descriptor.getName();
+            if (!"class".equals(propertyName) && beanWrapper.isReadableProperty(propertyName)) {
+                context.put(propertyName, beanWrapper.getPropertyValue(propertyName));
+            }
+        }
+        return context;
+    }
+
     @Override
     public String printProctorContext(final ProctorContext proctorContext) {
         final StringBuilder sb = new StringBuilder();
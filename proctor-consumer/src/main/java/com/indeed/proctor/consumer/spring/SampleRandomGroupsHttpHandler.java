@@ -1,6 +1,7 @@
 package com.indeed.proctor.consumer.spring;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.google.common.base.Splitter;
 import com.google.common.base.Strings;
 import com.google.common.collect.Maps;
@@ -12,8 +13,10 @@ import com.indeed.proctor.common.model.ConsumableTestDefinition;
 import com.indeed.proctor.common.model.TestBucket;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.consumer.AbstractGroups;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.web.HttpRequestHandler;
 
+import javax.annotation.Nullable;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -22,8 +25,12 @@ import java.io.PrintWriter;
 import java.util.Collections;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Take a random sampling of group determinations for a test or set of tests.
@@ -37,23 +44,51 @@ import java.util.Set;
  *
  * <p>The page will be mapped at /sampleRandomGroups under wherever the controller is mapped.
  *
+ * <p>Samples are determined one after another in the request thread, unless a parallelism is
+ * given to {@link #SampleRandomGroupsHttpHandler(AbstractProctorLoader, ContextSupplier, int)}.
+ *
  * @author jsgroth
  */
-public class SampleRandomGroupsHttpHandler<ProctorContext> implements HttpRequestHandler {
+public class SampleRandomGroupsHttpHandler<ProctorContext>
+        implements HttpRequestHandler, DisposableBean {
     private static final int DEFAULT_SAMPLES = 1000;
 
     private final AbstractProctorLoader proctorLoader;
     private final ContextSupplier<ProctorContext> supplier;
 
-    private final Random random;
+    // null when sampling in the request thread
+    @Nullable private final ForkJoinPool samplingPool;
 
     public SampleRandomGroupsHttpHandler(
             final AbstractProctorLoader proctorLoader,
             final ContextSupplier<ProctorContext> supplier) {
+        this(proctorLoader, supplier, 1);
+    }
+
+    /**
+     * Determines samples in parallel. The {@link ContextSupplier} is then called concurrently, so
+     * it must be thread-safe. The threads are stopped by {@link #destroy()}.
+     *
+     * @param parallelism maximum number of threads determining samples at the same time, 1 to
+     *     determine samples in the request thread
+     */
+    public SampleRandomGroupsHttpHandler(
+            final AbstractProctorLoader proctorLoader,
+            final ContextSupplier<ProctorContext> supplier,
+            final int parallelism) {
+        Preconditions.checkArgument(parallelism > 0, "parallelism must be positive");
         this.proctorLoader = proctorLoader;
         this.supplier = supplier;
 
-        this.random = new Random();
+        this.samplingPool = (parallelism == 1) ? null : new ForkJoinPool(parallelism);
+    }
+
+    /** Stops the threads determining samples in parallel, if any */
+    @Override
+    public void destroy() {
+        if (samplingPool != null) {
+            samplingPool.shutdown();
+        }
     }
 
     @Override
@@ -150,8 +185,8 @@ public class SampleRandomGroupsHttpHandler<ProctorContext> implements HttpReques
 
     // Run random group determination.
     // This will run the specified number of group determinations and will record, for each group in
-    // each target
-    // test, how many times the group was present in the list of groups.
+    // each target test, how many times the group was present in the list of groups.
+    // Only the target tests and the tests they depend on are determined.
     @VisibleForTesting
     Map<String, Integer> runSampling(
             final ProctorContext proctorContext,
@@ -159,32 +194,51 @@ public class SampleRandomGroupsHttpHandler<ProctorContext> implements HttpReques
             final TestType testType,
             final int determinationsToRun) {
         final Set<String> targetTestGroups = getTargetTestGroups(targetTestNames);
-        final Map<String, Integer> testGroupToOccurrences = Maps.newTreeMap();
+        final Map<String, LongAdder> testGroupToOccurrences = Maps.newHashMap();
         for (final String testGroup : targetTestGroups) {
-            testGroupToOccurrences.put(testGroup, 0);
+            testGroupToOccurrences.put(testGroup, new LongAdder());
         }
 
-        for (int i = 0; i < determinationsToRun; ++i) {
-            final Identifiers identifiers =
-                    TestType.RANDOM.equals(testType)
-                            ? new Identifiers(
-                                    Collections.<TestType, String>emptyMap(), /* randomEnabled */
-                                    true)
-                            : Identifiers.of(testType, Long.toString(random.nextLong()));
-            final AbstractGroups groups = supplier.getRandomGroups(proctorContext, identifiers);
-            for (final Entry<String, TestBucket> e :
-                    groups.getAsProctorResult().getBuckets().entrySet()) {
-                final String testName = e.getKey();
-                if (targetTestNames.contains(testName)) {
-                    final int group = e.getValue().getValue();
-                    final String testGroup = testName + group;
-                    testGroupToOccurrences.put(
-                            testGroup, testGroupToOccurrences.get(testGroup) + 1);
-                }
-            }
+        final IntConsumer sampler =
+                i -> {
+                    // random of the current thread, not shared between parallel workers
+                    final Identifiers identifiers =
+                            TestType.RANDOM.equals(testType)
+                                    ? new Identifiers(
+                                            Collections.<TestType, String>emptyMap(),
+                                            /* randomEnabled */ true)
+                                    : Identifiers.of(
+                                            testType,
+                                            Long.toString(ThreadLocalRandom.current().nextLong()));
+                    final AbstractGroups groups =
+                            supplier.getRandomGroups(proctorContext, identifiers, targetTestNames);
+                    for (final Entry<String, TestBucket> e :
+                            groups.getAsProctorResult().getBuckets().entrySet()) {
+                        final String testName = e.getKey();
+                        if (targetTestNames.contains(testName)) {
+                            final int group = e.getValue().getValue();
+                            testGroupToOccurrences.get(testName + group).increment();
+                        }
+                    }
+                };
+        if (samplingPool == null) {
+            IntStream.range(0, determinationsToRun).forEach(sampler);
+        } else {
+            // parallel streams run in the pool they are started from
+            samplingPool
+                    .submit(
+                            () ->
+                                    IntStream.range(0, determinationsToRun)
+                                            .parallel()
+                                            .forEach(sampler))
+                    .join();
         }
 
-        return testGroupToOccurrences;
+        final Map<String, Integer> result = Maps.newTreeMap();
+        for (final Entry<String, LongAdder> e : testGroupToOccurrences.entrySet()) {
+            result.put(e.getKey(), e.getValue().intValue());
+        }
+        return result;
     }
 
     // Get all test group strings for the given set of test names
@@ -214,6 +268,19 @@ public class SampleRandomGroupsHttpHandler<ProctorContext> implements HttpReques
          * Determine groups for the given context and identifiers.
          */
         AbstractGroups getRandomGroups(ProctorContext proctorContext, Identifiers identifiers);
+
+        /**
+         * Determine groups for the given context and identifiers, only needing the groups of the
+         * given tests. Override to pass the tests as test name filter to the groups manager, which
+         * determines them and the tests they depend on instead of all tests. By default, groups of
+         * all tests are determined.
+         */
+        default AbstractGroups getRandomGroups(
+                final ProctorContext proctorContext,
+                final Identifiers identifiers,
+                final Set<String> testNames) {
+            return getRandomGroups(proctorContext, identifiers);
+        }
     }
 
     private static void printUsage(
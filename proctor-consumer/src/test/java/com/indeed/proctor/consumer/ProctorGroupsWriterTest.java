@@ -166,6 +166,29 @@ public class ProctorGroupsWriterTest {
                                 .with(","));
     }
 
+    @Test
+    public void testPrecomputedFragmentsSameAsFormatters() {
+        // delegating formatters are not recognized as builtin formatters, so format every group
+        final ProctorGroupsWriter formattingWriter =
+                new ProctorGroupsWriter.Builder(
+                                TestGroupFormatter.WITHOUT_ALLOC_ID::appendProctorTestGroup,
+                                TestGroupFormatter.WITH_ALLOC_ID::appendProctorTestGroup)
+                        .setIncludeSilentTests(true)
+                        .setIncludeInactiveGroups(true)
+                        .build();
+        final ProctorGroupsWriter writer =
+                new ProctorGroupsWriter.Builder(
+                                TestGroupFormatter.WITHOUT_ALLOC_ID,
+                                TestGroupFormatter.WITH_ALLOC_ID)
+                        .setIncludeSilentTests(true)
+                        .setIncludeInactiveGroups(true)
+                        .build();
+        final String expected = formattingWriter.writeGroupsAsString(PROCTOR_RESULT);
+        assertThat(writer.writeGroupsAsString(PROCTOR_RESULT)).isEqualTo(expected);
+        // second call uses cached fragments
+        assertThat(writer.writeGroupsAsString(PROCTOR_RESULT)).isEqualTo(expected);
+    }
+
     @Test
     public void testCustomWriter() {
         final ProctorGroupsWriter writerWithAllocIds =
@@ -0,0 +1,150 @@
+package com.indeed.proctor.consumer.spring;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.CharStreams;
+import com.indeed.proctor.common.AbstractProctorLoader;
+import com.indeed.proctor.common.Identifiers;
+import com.indeed.proctor.common.ProctorResult;
+import com.indeed.proctor.common.ProctorSpecification;
+import com.indeed.proctor.common.ProctorUtils;
+import com.indeed.proctor.common.StringProctorLoader;
+import com.indeed.proctor.common.model.TestType;
+import com.indeed.proctor.consumer.AbstractGroups;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AbstractSampleRandomGroupsControllerTest {
+    private static final String PROCTOR_MATRIX_JSON = "sample-controller-matrix.json";
+    private static final String PROCTOR_SPECIFICATION_JSON = "sample-controller-specification.json";
+
+    private static final Identifiers IDENTIFIERS = Identifiers.of(TestType.ACCOUNT, "1234");
+
+    private AbstractProctorLoader loader;
+    private SampleController controller;
+
+    public static class Context {
+        private String lang;
+
+        public String getLang() {
+            return lang;
+        }
+
+        public void setLang(final String lang) {
+            this.lang = lang;
+        }
+    }
+
+    private static class SampleController extends AbstractSampleRandomGroupsController<Context> {
+        private SampleController(final AbstractProctorLoader proctorLoader) {
+            super(proctorLoader, Context.class);
+        }
+
+        @Override
+        public AbstractGroups getRandomGroups(
+                final Context proctorContext, final Identifiers identifiers) {
+            throw new AssertionError("all tests should not be determined");
+        }
+
+        @Override
+        public AbstractGroups getRandomGroups(
+                final Context proctorContext,
+                final Identifiers identifiers,
+                final Set<String> testNames) {
+            return determineGroupsOfTests(proctorContext, identifiers, testNames);
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        loader =
+                new StringProctorLoader(
+                        readSpecification(),
+                        PROCTOR_MATRIX_JSON,
+                        readResource(PROCTOR_MATRIX_JSON));
+        assertThat(loader.load()).isTrue();
+        controller = new SampleController(loader);
+    }
+
+    @Test
+    public void testOnlyTargetTestsAndDependenciesAreDetermined() {
+        final Context context = new Context();
+        context.setLang("en");
+
+        assertThat(
+                        controller
+                                .getRandomGroups(context, IDENTIFIERS, ImmutableSet.of("child_tst"))
+                                .getAsProctorResult()
+                                .getBuckets())
+                .containsOnlyKeys("child_tst", "parent_tst");
+        assertThat(
+                        controller
+                                .getRandomGroups(context, IDENTIFIERS, ImmutableSet.of("lang_tst"))
+                                .getAsProctorResult()
+                                .getBuckets())
+                .containsOnlyKeys("lang_tst");
+    }
+
+    @Test
+    public void testContextPropertiesArePassedToRules() {
+        final Context context = new Context();
+        context.setLang("en");
+        assertThat(
+                        controller
+                                .getRandomGroups(context, IDENTIFIERS, ImmutableSet.of("lang_tst"))
+                                .getAsProctorResult()
+                                .getBuckets()
+                                .get("lang_tst")
+                                .getValue())
+                .isEqualTo(1);
+
+        context.setLang("ja");
+        assertThat(
+                        controller
+                                .getRandomGroups(context, IDENTIFIERS, ImmutableSet.of("lang_tst"))
+                                .getAsProctorResult()
+                                .getBuckets())
+                .doesNotContainKey("lang_tst");
+    }
+
+    @Test
+    public void testAllTestsAreDeterminedByDefault() {
+        final AbstractGroups groups = new AbstractGroups(ProctorResult.EMPTY) {};
+        final AbstractSampleRandomGroupsController<Context> defaultController =
+                new AbstractSampleRandomGroupsController<Context>(
+                        loader, Context.class) {
+                    @Override
+                    public AbstractGroups getRandomGroups(
+                            final Context proctorContext, final Identifiers identifiers) {
+                        return groups;
+                    }
+                };
+        assertThat(
+                        defaultController.getRandomGroups(
+                                new Context(), IDENTIFIERS, ImmutableSet.of("lang_tst")))
+                .isSameAs(groups);
+    }
+
+    private static ProctorSpecification readSpecification() throws IOException {
+        try (final InputStream inputStream =
+                AbstractSampleRandomGroupsControllerTest.class.getResourceAsStream(
+                        PROCTOR_SPECIFICATION_JSON)) {
+            return ProctorUtils.readSpecification(inputStream);
+        }
+    }
+
+    private static String readResource(final String name) throws IOException {
+        try (final InputStream inputStream =
+                        AbstractSampleRandomGroupsControllerTest.class.getResourceAsStream(name);
+                final Reader reader = new InputStreamReader(inputStream)) {
+            return CharStreams.toString(reader);
+        }
+    }
+}
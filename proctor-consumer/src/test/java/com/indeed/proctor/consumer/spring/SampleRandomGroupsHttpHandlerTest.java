@@ -20,6 +20,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -62,8 +63,9 @@ public class SampleRandomGroupsHttpHandlerTest {
 
     @Test
     public void testRunSampling() {
+        // calling the default method, which delegates to getRandomGroups without test names
         final SampleRandomGroupsHttpHandler.ContextSupplier<Object> mockedSupplier =
-                mock(SampleRandomGroupsHttpHandler.ContextSupplier.class);
+                mock(SampleRandomGroupsHttpHandler.ContextSupplier.class, CALLS_REAL_METHODS);
         final AbstractGroups mockedGroups = mock(AbstractGroups.class);
         final Object context = new Object();
 
@@ -80,6 +82,8 @@ public class SampleRandomGroupsHttpHandlerTest {
         // check if methods of mocked instances are correctly called
         verify(mockedGroups, times(10)).getAsProctorResult();
         verify(mockedSupplier, times(10)).getRandomGroups(eq(context), any());
+        verify(mockedSupplier, times(10))
+                .getRandomGroups(eq(context), any(), eq(ImmutableSet.of("account1_tst")));
         verifyNoMoreInteractions(mockedSupplier, mockedGroups);
     }
 
@@ -0,0 +1,53 @@
+package com.indeed.proctor.pipet.core.model;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One element of the request body of /groups/identify/batch, holding what /groups/identify reads
+ * from query parameters and headers. Context variables and identifiers are keyed by their variable
+ * name in the pipet configuration.
+ */
+public class JsonBatchEntry {
+    private Map<String, String> context = Collections.emptyMap();
+    private Map<String, String> identifiers = Collections.emptyMap();
+    @Nullable private List<String> test;
+    private String forceGroups = "";
+
+    public Map<String, String> getContext() {
+        return context;
+    }
+
+    public void setContext(final Map<String, String> context) {
+        this.context = context;
+    }
+
+    public Map<String, String> getIdentifiers() {
+        return identifiers;
+    }
+
+    public void setIdentifiers(final Map<String, String> identifiers) {
+        this.identifiers = identifiers;
+    }
+
+    /** Tests to determine groups for, null to determine groups of all tests */
+    @Nullable
+    public List<String> getTest() {
+        return test;
+    }
+
+    public void setTest(@Nullable final List<String> test) {
+        this.test = test;
+    }
+
+    /** Same format as the prforceGroups parameter */
+    public String getForceGroups() {
+        return forceGroups;
+    }
+
+    public void setForceGroups(final String forceGroups) {
+        this.forceGroups = forceGroups;
+    }
+}
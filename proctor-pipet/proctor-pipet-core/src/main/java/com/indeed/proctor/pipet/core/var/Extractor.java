@@ -1,14 +1,18 @@
 package com.indeed.proctor.pipet.core.var;
 
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.pipet.core.config.JsonContextVarConfig;
 import com.indeed.proctor.pipet.core.config.JsonVarConfig;
+import com.indeed.proctor.pipet.core.model.JsonBatchEntry;
 import com.indeed.proctor.pipet.core.web.BadRequestException;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -40,9 +44,19 @@ public class Extractor {
 
     public RawParameters extract(final HttpServletRequest request) {
         final Map<String, String> contextMap =
-                extractAllVars(request, contextList, PrefixVariable::getVarName, true);
+                extractAllVars(
+                        var -> var.getExtractor().extract(request),
+                        var -> var.getExtractor().toString(),
+                        contextList,
+                        PrefixVariable::getVarName,
+                        true);
         final Map<TestType, String> identifierMap =
-                extractAllVars(request, identifierList, Identifier::getTestType, false);
+                extractAllVars(
+                        var -> var.getExtractor().extract(request),
+                        var -> var.getExtractor().toString(),
+                        identifierList,
+                        Identifier::getTestType,
+                        false);
 
         checkAtLeastOneIdentifier(identifierMap);
 
@@ -50,6 +64,39 @@ public class Extractor {
                 contextMap, identifierMap, extractTest(request), extractForceGroups(request));
     }
 
+    /**
+     * Same as {@link #extract(HttpServletRequest)} for an entry of a batch request, which holds
+     * variables by their names instead of where the configuration would look for them in a request.
+     */
+    public RawParameters extract(final JsonBatchEntry entry) {
+        final Map<String, String> context =
+                MoreObjects.firstNonNull(entry.getContext(), Collections.emptyMap());
+        final Map<String, String> identifiers =
+                MoreObjects.firstNonNull(entry.getIdentifiers(), Collections.emptyMap());
+        final Map<String, String> contextMap =
+                extractAllVars(
+                        var -> context.get(var.getVarName()),
+                        var -> "context of batch entry",
+                        contextList,
+                        PrefixVariable::getVarName,
+                        true);
+        final Map<TestType, String> identifierMap =
+                extractAllVars(
+                        var -> identifiers.get(var.getVarName()),
+                        var -> "identifiers of batch entry",
+                        identifierList,
+                        Identifier::getTestType,
+                        false);
+
+        checkAtLeastOneIdentifier(identifierMap);
+
+        return new RawParameters(
+                contextMap,
+                identifierMap,
+                entry.getTest(),
+                Strings.nullToEmpty(entry.getForceGroups()));
+    }
+
     /**
      * Checks that there is at least one identifier in the request.
      *
@@ -96,7 +143,8 @@ public class Extractor {
     /**
      * Extracts vars from either the context vars or the identifiers according to a configuration.
      *
-     * @param request The HTTP request.
+     * @param valueFn A function looking up the value of the variable, null if missing.
+     * @param sourceFn A function describing where the variable was looked up, for errors.
      * @param varList The list of variables to process.
      * @param mapKeyFn A function used to create key for the map returned based on the input
      *     PrefixVariable
@@ -105,7 +153,8 @@ public class Extractor {
      * @return A mapping of var name to string var value.
      */
     private <KeyType, VariableType extends PrefixVariable> Map<KeyType, String> extractAllVars(
-            final HttpServletRequest request,
+            final Function<? super VariableType, String> valueFn,
+            final Function<? super VariableType, String> sourceFn,
             final List<VariableType> varList,
             final Function<? super VariableType, KeyType> mapKeyFn,
             final boolean isMissingError) {
@@ -113,7 +162,7 @@ public class Extractor {
 
         for (final VariableType var : varList) {
             final String varName = var.getVarName();
-            final String value = var.getExtractor().extract(request);
+            final String value = valueFn.apply(var);
             final String defaultValue = var.getDefaultValue();
             final KeyType mapKey = mapKeyFn.apply(var);
 
@@ -123,7 +172,7 @@ public class Extractor {
                 throw new BadRequestException(
                         String.format(
                                 "Required variable '%s' not found by '%s'. See the pipet configuration.",
-                                varName, var.getExtractor().toString()));
+                                varName, sourceFn.apply(var)));
             } else if (value == null && defaultValue != null) {
                 // We have a default to fall back on.
                 ret.put(mapKey, defaultValue);
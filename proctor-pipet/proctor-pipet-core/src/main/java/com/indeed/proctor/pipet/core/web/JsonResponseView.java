@@ -1,5 +1,6 @@
 package com.indeed.proctor.pipet.core.web;
 
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
 /**
@@ -13,6 +14,12 @@ import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
  * <p>This is guaranteed to use Jackson 2, which fixes a few problems related to JSON annotations.
  */
 public class JsonResponseView extends MappingJackson2JsonView {
+    /**
+     * Writer with the configuration of this view, for responses that are serialized in advance or
+     * streamed instead of rendered by a view
+     */
+    static final ObjectWriter OBJECT_WRITER = new JsonResponseView().getObjectMapper().writer();
+
     public JsonResponseView() {
         super();
         setExtractValueFromSingleKeyModel(true);
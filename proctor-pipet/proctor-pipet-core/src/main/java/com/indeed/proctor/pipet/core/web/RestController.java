@@ -1,10 +1,19 @@
 package com.indeed.proctor.pipet.core.web;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.indeed.proctor.common.AbstractProctorLoader;
 import com.indeed.proctor.common.Proctor;
 import com.indeed.proctor.common.ProctorResult;
-import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.common.model.Audit;
 import com.indeed.proctor.pipet.core.config.JsonPipetConfig;
+import com.indeed.proctor.pipet.core.model.JsonBatchEntry;
 import com.indeed.proctor.pipet.core.model.JsonEmptyDataResponse;
 import com.indeed.proctor.pipet.core.model.JsonMeta;
 import com.indeed.proctor.pipet.core.model.JsonResponse;
@@ -14,6 +23,7 @@ import com.indeed.proctor.pipet.core.var.Converter;
 import com.indeed.proctor.pipet.core.var.Extractor;
 import com.indeed.proctor.pipet.core.var.RawParameters;
 import com.indeed.proctor.pipet.core.var.VariableConfiguration;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
@@ -23,38 +33,86 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.servlet.ModelAndView;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * pipet endpoints to - resolve groups for given identifiers and context variables - get the latest
  * test matrix provided by the given loader - get config and metadata.
  */
 @Controller
-public class RestController {
+public class RestController implements DisposableBean {
+    private static final ObjectReader BATCH_ENTRY_READER =
+            new ObjectMapper().readerFor(JsonBatchEntry.class);
+
     private final AbstractProctorLoader loader;
 
     private final JsonPipetConfig jsonPipetConfig;
     private final Extractor extractor;
     private final Converter converter;
+    private final SerializedMatrixCache serializedMatrixCache = new SerializedMatrixCache();
+    private final int maxBatchEntries;
+    /** evaluates parallel batch entries, running them on the request thread when saturated */
+    private final ExecutorService batchExecutor;
 
     @Value("${proctor.pipet.identify.all.disable:false}")
     private boolean disableIdentifyAllTests;
 
+    /**
+     * @param maxBatchEntries maximum number of entries of a batch request
+     * @param batchThreads number of threads evaluating entries of parallel batch requests, shared
+     *     by all requests
+     */
     @Autowired
     public RestController(
-            final VariableConfiguration configuration, final AbstractProctorLoader loader) {
+            final VariableConfiguration configuration,
+            final AbstractProctorLoader loader,
+            @Value("${proctor.pipet.identify.batch.max.entries:1000}") final int maxBatchEntries,
+            @Value("${proctor.pipet.identify.batch.threads:4}") final int batchThreads) {
+        Preconditions.checkArgument(maxBatchEntries > 0, "maxBatchEntries must be positive");
+        Preconditions.checkArgument(batchThreads > 0, "batchThreads must be positive");
 
         this.jsonPipetConfig = configuration.getJsonConfig();
         this.extractor = configuration.getExtractor();
         this.converter = configuration.getConverter();
         this.loader = loader;
+        this.maxBatchEntries = maxBatchEntries;
+        this.batchExecutor =
+                new ThreadPoolExecutor(
+                        batchThreads,
+                        batchThreads,
+                        0L,
+                        TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(maxBatchEntries),
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("pipet-batch-%d")
+                                .setDaemon(true)
+                                .build(),
+                        // unlike CallerRunsPolicy, also runs tasks after shutdown, so that no
+                        // request waits for a task that is never run
+                        (task, executor) -> task.run());
+    }
+
+    @Override
+    public void destroy() {
+        batchExecutor.shutdownNow();
     }
 
     /**
@@ -73,6 +131,124 @@ public class RestController {
         final RawParameters raw = extractor.extract(request);
         final ConvertedParameters param = converter.convert(raw);
 
+        final ProctorResult result = determineTestGroups(proctor, param);
+        final JsonResult jsonResult =
+                new JsonResult(result, param.getContext(), loader.getLastAudit());
+        model.addAttribute(new JsonResponse<>(jsonResult, new JsonMeta(HttpStatus.OK.value())));
+        return new JsonResponseView();
+    }
+
+    /**
+     * Same as /groups/identify for many entries at once. The request body is a JSON array of
+     * {@link JsonBatchEntry}, the response holds a JSON array with the result of each entry in the
+     * same order. All entries are evaluated against the same test matrix, and in parallel when the
+     * parallel parameter is true. Requests with more entries than configured by
+     * proctor.pipet.identify.batch.max.entries are rejected.
+     *
+     * <p>Example body: [{"context": {"country": "US"}, "identifiers": {"tk": "pa5xq0lz4n82"},
+     * "test": ["foo_test"], "forceGroups": "foo_tst2"}]
+     */
+    @RequestMapping(value = "/groups/identify/batch", method = RequestMethod.POST)
+    public void groupsIdentifyBatch(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            @RequestParam(value = "parallel", defaultValue = "false") final boolean parallel)
+            throws IOException {
+        final List<JsonBatchEntry> entries;
+        try {
+            entries = readBatchEntries(request.getInputStream());
+        } catch (final JsonProcessingException e) {
+            throw new BadRequestException("Invalid batch request body: " + e.getOriginalMessage());
+        }
+
+        // convert all entries first, so that invalid entries fail the request before responding
+        final List<ConvertedParameters> params = new ArrayList<>(entries.size());
+        for (final JsonBatchEntry entry : entries) {
+            params.add(converter.convert(extractor.extract(entry)));
+        }
+
+        // same snapshot of the test matrix for all entries
+        final Proctor proctor = tryLoadProctor();
+        final Audit audit = loader.getLastAudit();
+        final Function<ConvertedParameters, JsonResult> evaluator =
+                param ->
+                        new JsonResult(
+                                determineTestGroups(proctor, param), param.getContext(), audit);
+        // evaluated before responding, so that failures don't truncate a successful response
+        final List<JsonResult> results =
+                parallel
+                        ? evaluateInParallel(params, evaluator)
+                        : params.stream().map(evaluator).collect(Collectors.toList());
+
+        response.setContentType("application/json;charset=UTF-8");
+        try (JsonGenerator generator =
+                JsonResponseView.OBJECT_WRITER.createGenerator(response.getOutputStream())) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("data");
+            for (final JsonResult result : results) {
+                generator.writeObject(result);
+            }
+            generator.writeEndArray();
+            generator.writeObjectField("meta", new JsonMeta(HttpStatus.OK.value()));
+            generator.writeEndObject();
+        }
+    }
+
+    /** Reads the array of entries, failing as soon as it has more entries than allowed */
+    private List<JsonBatchEntry> readBatchEntries(final InputStream input) throws IOException {
+        final List<JsonBatchEntry> entries = new ArrayList<>();
+        try (JsonParser parser = BATCH_ENTRY_READER.createParser(input)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new BadRequestException("Batch request body must be an array of entries.");
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                if (entries.size() >= maxBatchEntries) {
+                    throw new BadRequestException(
+                            String.format(
+                                    "Batch request must not have more than %d entries.",
+                                    maxBatchEntries));
+                }
+                final JsonBatchEntry entry = BATCH_ENTRY_READER.readValue(parser);
+                if (entry == null) {
+                    throw new BadRequestException(
+                            "Batch request body must be an array of entries.");
+                }
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    private List<JsonResult> evaluateInParallel(
+            final List<ConvertedParameters> params,
+            final Function<ConvertedParameters, JsonResult> evaluator) {
+        final List<Future<JsonResult>> futures = new ArrayList<>(params.size());
+        for (final ConvertedParameters param : params) {
+            futures.add(batchExecutor.submit(() -> evaluator.apply(param)));
+        }
+        final List<JsonResult> results = new ArrayList<>(futures.size());
+        try {
+            for (final Future<JsonResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalServerException("Interrupted while evaluating batch request");
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InternalServerException(
+                    "Unable to evaluate batch request: " + e.getCause().getMessage());
+        } finally {
+            // no need to evaluate the remaining entries once the request failed
+            futures.forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    private ProctorResult determineTestGroups(
+            final Proctor proctor, final ConvertedParameters param) {
         final ProctorResult result;
         if (param.getTest() == null && !disableIdentifyAllTests) {
             // Get all existing tests.
@@ -96,20 +272,18 @@ public class RestController {
                             param.getForceGroups(),
                             param.getTest());
         }
-
-        final JsonResult jsonResult =
-                new JsonResult(result, param.getContext(), loader.getLastAudit());
-        model.addAttribute(new JsonResponse<>(jsonResult, new JsonMeta(HttpStatus.OK.value())));
-        return new JsonResponseView();
+        return result;
     }
 
-    /** Returns the entire test matrix in JSON format. */
+    /**
+     * Returns the entire test matrix in JSON format. The matrix is serialized once per loaded
+     * matrix, and responses support gzip and conditional requests with ETag.
+     */
     @RequestMapping(value = "/proctor/matrix", method = RequestMethod.GET)
-    public void proctorMatrix(final HttpServletResponse response) throws IOException {
+    public void proctorMatrix(final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
         final Proctor proctor = tryLoadProctor();
-        response.setContentType("application/json;charset=UTF-8");
-        final PrintWriter writer = response.getWriter();
-        proctor.appendTestMatrix(writer);
+        serializedMatrixCache.getMatrix(proctor).writeTo(request, response);
     }
 
     /** Returns the audit of the test matrix in JSON format. */
@@ -120,21 +294,27 @@ public class RestController {
         return new JsonResponseView();
     }
 
-    /** Returns the test definition for a specific test in JSON format. */
+    /**
+     * Returns the test definition for a specific test in JSON format. Like the matrix, it is
+     * serialized once per loaded matrix.
+     */
     @RequestMapping(value = "/proctor/matrix/definition/{testName}", method = RequestMethod.GET)
-    public JsonResponseView proctorMatrixDefinition(
-            final Model model, @PathVariable String testName) {
+    public void proctorMatrixDefinition(
+            final HttpServletRequest request,
+            final HttpServletResponse response,
+            @PathVariable String testName)
+            throws IOException {
 
         final Proctor proctor = tryLoadProctor();
 
-        final ConsumableTestDefinition testDef = proctor.getTestDefinition(testName);
-        if (testDef == null) {
+        final SerializedResponse definition =
+                serializedMatrixCache.getDefinition(proctor, testName);
+        if (definition == null) {
             throw new NotFoundException(
                     String.format("'%s' test definition not found in test matrix.", testName));
         }
 
-        model.addAttribute(new JsonResponse<>(testDef, new JsonMeta(HttpStatus.OK.value())));
-        return new JsonResponseView();
+        definition.writeTo(request, response);
     }
 
     /** Returns the configured context variable parsers from the pipet configuration file. */
@@ -0,0 +1,87 @@
+package com.indeed.proctor.pipet.core.web;
+
+import com.indeed.proctor.common.Proctor;
+import com.indeed.proctor.common.model.ConsumableTestDefinition;
+import com.indeed.proctor.pipet.core.model.JsonMeta;
+import com.indeed.proctor.pipet.core.model.JsonResponse;
+import org.springframework.http.HttpStatus;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the serialized test matrix and test definitions of the latest loaded Proctor, so that
+ * polling them doesn't serialize the matrix on each request. Entries of an older Proctor are
+ * dropped when a new one is loaded.
+ */
+class SerializedMatrixCache {
+    @CheckForNull private volatile Snapshot snapshot;
+
+    /** @return the matrix as written by {@link Proctor#appendTestMatrix} */
+    @Nonnull
+    SerializedResponse getMatrix(@Nonnull final Proctor proctor) {
+        return getSnapshot(proctor).matrix;
+    }
+
+    /** @return the definition in a {@link JsonResponse}, null if the test doesn't exist */
+    @CheckForNull
+    SerializedResponse getDefinition(@Nonnull final Proctor proctor, final String testName) {
+        final ConsumableTestDefinition definition = proctor.getTestDefinition(testName);
+        if (definition == null) {
+            return null;
+        }
+        return getSnapshot(proctor)
+                .definitions
+                .computeIfAbsent(testName, name -> serializeDefinition(definition));
+    }
+
+    @Nonnull
+    private Snapshot getSnapshot(@Nonnull final Proctor proctor) {
+        final Snapshot current = snapshot;
+        if ((current != null) && (current.proctor == proctor)) {
+            return current;
+        }
+        synchronized (this) {
+            if ((snapshot == null) || (snapshot.proctor != proctor)) {
+                snapshot = new Snapshot(proctor);
+            }
+            return snapshot;
+        }
+    }
+
+    private static SerializedResponse serializeDefinition(
+            final ConsumableTestDefinition definition) {
+        try {
+            return new SerializedResponse(
+                    JsonResponseView.OBJECT_WRITER.writeValueAsBytes(
+                            new JsonResponse<>(definition, new JsonMeta(HttpStatus.OK.value()))));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Snapshot {
+        private final Proctor proctor;
+        private final SerializedResponse matrix;
+        private final Map<String, SerializedResponse> definitions = new ConcurrentHashMap<>();
+
+        Snapshot(final Proctor proctor) {
+            this.proctor = proctor;
+            final StringWriter writer = new StringWriter();
+            try {
+                proctor.appendTestMatrix(writer);
+            } catch (final IOException e) {
+                // never thrown by StringWriter
+                throw new UncheckedIOException(e);
+            }
+            this.matrix =
+                    new SerializedResponse(writer.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.indeed.proctor.pipet.core.web;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import com.google.common.net.HttpHeaders;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON response body serialized once, in identity and gzip encoding, to be written to many
+ * responses without serializing again. Supports conditional requests with an ETag derived from
+ * the content.
+ */
+class SerializedResponse {
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final String GZIP = "gzip";
+
+    @Nonnull private final byte[] identity;
+    @Nonnull private final byte[] gzip;
+    @Nonnull private final String entityTag;
+    @Nonnull private final String gzipEntityTag;
+
+    SerializedResponse(@Nonnull final byte[] identity) {
+        this.identity = identity;
+        this.gzip = compress(identity);
+        final String hash = Hashing.murmur3_128().hashBytes(identity).toString();
+        // each encoding is a different representation, so it needs its own tag
+        this.entityTag = '"' + hash + '"';
+        this.gzipEntityTag = '"' + hash + "-gzip\"";
+    }
+
+    /**
+     * Writes the body to the response, gzipped if the client accepts it. Responds 304 without
+     * body if the client already has it.
+     */
+    void writeTo(final HttpServletRequest request, final HttpServletResponse response)
+            throws IOException {
+        final boolean acceptsGzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        final String tag = acceptsGzip ? gzipEntityTag : entityTag;
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, tag);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        final byte[] body = acceptsGzip ? gzip : identity;
+        response.setContentType(CONTENT_TYPE);
+        if (acceptsGzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * @return true if gzip, or any coding with "*" when gzip is not listed, has a non-zero quality
+     *     value in the Accept-Encoding header
+     */
+    @VisibleForTesting
+    static boolean acceptsGzip(@Nullable final String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (final String coding : acceptEncoding.split(",")) {
+            final String[] parameters = coding.split(";");
+            final String name = parameters[0].trim();
+            if (GZIP.equalsIgnoreCase(name) || "x-gzip".equalsIgnoreCase(name)) {
+                return isAcceptable(parameters);
+            } else if ("*".equals(name)) {
+                wildcard = isAcceptable(parameters);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /** @return false if the coding has a quality value of 0, or an invalid one */
+    private static boolean isAcceptable(final String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim()) > 0;
+                } catch (final NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(final String ifNoneMatch, final String tag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (final String candidate : ifNoneMatch.split(",")) {
+            final String trimmed = candidate.trim();
+            // weak comparison, as for If-None-Match
+            if ("*".equals(trimmed) || tag.equals(trimmed) || ("W/" + tag).equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] compress(final byte[] bytes) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(bytes);
+        } catch (final IOException e) {
+            // never thrown by ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
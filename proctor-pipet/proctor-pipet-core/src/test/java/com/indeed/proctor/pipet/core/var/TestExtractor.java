@@ -1,8 +1,10 @@
 package com.indeed.proctor.pipet.core.var;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.pipet.core.config.ExtractorSource;
+import com.indeed.proctor.pipet.core.model.JsonBatchEntry;
 import com.indeed.proctor.pipet.core.web.BadRequestException;
 import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
@@ -169,6 +171,40 @@ public class TestExtractor {
         // No exception even though unrecognized parameters were passed.
     }
 
+    @Test
+    public void testExtractBatchEntry() {
+        final Extractor extractor = getBasicExtractor();
+
+        final JsonBatchEntry entry = new JsonBatchEntry();
+        entry.setContext(ImmutableMap.of("language", "fr"));
+        entry.setIdentifiers(ImmutableMap.of("user", "123456"));
+        entry.setTest(ImmutableList.of("firsttest"));
+        entry.setForceGroups("mytestbucket1");
+
+        final RawParameters parameters = extractor.extract(entry);
+        final Map<String, String> context = parameters.getContext();
+        assertEquals(DEFAULT_COUNTRY, context.get("country"));
+        assertEquals("fr", context.get("language"));
+        assertEquals(2, context.size());
+
+        final Map<TestType, String> ids = parameters.getIdentifiers();
+        assertEquals(1, ids.size());
+        assertEquals("123456", ids.get(TestType.ANONYMOUS_USER));
+
+        assertEquals(ImmutableList.of("firsttest"), parameters.getTest());
+        assertEquals("mytestbucket1", parameters.getForceGroups());
+    }
+
+    @Test(expected = BadRequestException.class)
+    public void testExtractBatchEntryWithMissingContextParameter() {
+        final Extractor extractor = getBasicExtractor();
+
+        final JsonBatchEntry entry = new JsonBatchEntry();
+        entry.setIdentifiers(ImmutableMap.of("user", "123456"));
+
+        extractor.extract(entry);
+    }
+
     private Extractor getBasicExtractor() {
         // default country
         final ContextVariable country =
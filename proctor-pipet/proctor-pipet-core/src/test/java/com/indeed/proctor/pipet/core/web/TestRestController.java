@@ -0,0 +1,192 @@
+package com.indeed.proctor.pipet.core.web;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import com.indeed.proctor.common.AbstractProctorLoader;
+import com.indeed.proctor.common.ProctorSpecification;
+import com.indeed.proctor.common.ProctorUtils;
+import com.indeed.proctor.common.StringProctorLoader;
+import com.indeed.proctor.common.model.TestType;
+import com.indeed.proctor.pipet.core.config.ExtractorSource;
+import com.indeed.proctor.pipet.core.config.VariableConfigurationJsonParser;
+import com.indeed.proctor.pipet.core.var.ContextVariable;
+import com.indeed.proctor.pipet.core.var.ValueConverters;
+import com.indeed.proctor.pipet.core.var.VariableConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TestRestController {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int MAX_BATCH_ENTRIES = 10;
+
+    private RestController controller;
+
+    @Before
+    public void setUp() throws IOException {
+        final ProctorSpecification specification;
+        try (InputStream input = getClass().getResourceAsStream("batch-test-specification.json")) {
+            specification = ProctorUtils.readSpecification(input);
+        }
+        final AbstractProctorLoader loader =
+                new StringProctorLoader(
+                        specification,
+                        "batch-test-matrix.json",
+                        Resources.toString(
+                                getClass().getResource("batch-test-matrix.json"),
+                                StandardCharsets.UTF_8));
+        assertThat(loader.load()).isTrue();
+
+        final VariableConfiguration configuration =
+                VariableConfigurationJsonParser.newParser()
+                        .addContextVariable(
+                                ContextVariable.newBuilder()
+                                        .setVarName("country")
+                                        .setSourceKey("co")
+                                        .setConverter(ValueConverters.stringValueConverter())
+                                        .build())
+                        .addIdentifier(ExtractorSource.QUERY, TestType.ANONYMOUS_USER)
+                        .build();
+        controller = new RestController(configuration, loader, MAX_BATCH_ENTRIES, 2);
+    }
+
+    @After
+    public void tearDown() {
+        controller.destroy();
+    }
+
+    @Test
+    public void testSequentialBatch() throws IOException {
+        final JsonNode body =
+                identifyBatch(toJson(entries("US", "CA", "US")), /* parallel */ false);
+
+        assertThat(body.get("meta").get("status").asInt()).isEqualTo(200);
+        assertThat(getBucketValues(body)).containsExactly(1, 0, 1);
+        assertThat(body.get("data").get(1).get("context").get("country").asText())
+                .isEqualTo("CA");
+        assertThat(body.get("data").get(0).get("audit").get("version").asText()).isEqualTo("1");
+    }
+
+    @Test
+    public void testParallelBatch() throws IOException {
+        final String[] countries = new String[MAX_BATCH_ENTRIES];
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < countries.length; i++) {
+            countries[i] = (i % 3 == 0) ? "US" : "CA";
+            expected.add((i % 3 == 0) ? 1 : 0);
+        }
+        final JsonNode body = identifyBatch(toJson(entries(countries)), /* parallel */ true);
+
+        assertThat(body.get("meta").get("status").asInt()).isEqualTo(200);
+        assertThat(getBucketValues(body)).isEqualTo(expected);
+    }
+
+    @Test
+    public void testEmptyBatch() throws IOException {
+        final JsonNode body = identifyBatch("[]", /* parallel */ false);
+
+        assertThat(body.get("meta").get("status").asInt()).isEqualTo(200);
+        assertThat(body.get("data").size()).isZero();
+    }
+
+    @Test
+    public void testTooManyEntries() throws IOException {
+        final String[] countries = new String[MAX_BATCH_ENTRIES + 1];
+        Arrays.fill(countries, "US");
+        final String json = toJson(entries(countries));
+
+        assertThatThrownBy(() -> identifyBatch(json, /* parallel */ false))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining(String.valueOf(MAX_BATCH_ENTRIES));
+    }
+
+    @Test
+    public void testInvalidBody() {
+        for (final String json :
+                ImmutableList.of(
+                        "",
+                        "null",
+                        "{\"identifiers\": {\"user\": \"1\"}}",
+                        "[null]",
+                        "[1]",
+                        "[{\"identifiers\": {\"user\": \"1\"}, \"unknown\": 1}]",
+                        "[{\"identifiers\": {\"user\": \"1\"}}",
+                        "not json")) {
+            assertThatThrownBy(() -> identifyBatch(json, /* parallel */ false))
+                    .as(json)
+                    .isInstanceOf(BadRequestException.class);
+        }
+    }
+
+    @Test
+    public void testInvalidEntryFailsBeforeResponding() {
+        // second entry misses the identifier
+        final String json =
+                "[{\"identifiers\": {\"user\": \"1\"}, \"context\": {\"country\": \"US\"}},"
+                        + " {\"context\": {\"country\": \"US\"}}]";
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThatThrownBy(() -> identifyBatch(json, true, response))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(response.isCommitted()).isFalse();
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private JsonNode identifyBatch(final String json, final boolean parallel)
+            throws IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        identifyBatch(json, parallel, response);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        return OBJECT_MAPPER.readTree(response.getContentAsByteArray());
+    }
+
+    private void identifyBatch(
+            final String json, final boolean parallel, final MockHttpServletResponse response)
+            throws IOException {
+        final MockHttpServletRequest request =
+                new MockHttpServletRequest("POST", "/groups/identify/batch");
+        request.setContent(json.getBytes(StandardCharsets.UTF_8));
+        controller.groupsIdentifyBatch(request, response, parallel);
+    }
+
+    private static List<Integer> getBucketValues(final JsonNode body) {
+        final List<Integer> values = new ArrayList<>();
+        for (final JsonNode result : body.get("data")) {
+            values.add(result.get("groups").get("country_tst").get("value").asInt());
+        }
+        return values;
+    }
+
+    private static List<Map<String, Object>> entries(final String... countries) {
+        final List<Map<String, Object>> entries = new ArrayList<>();
+        for (int i = 0; i < countries.length; i++) {
+            entries.add(
+                    ImmutableMap.of(
+                            "context", ImmutableMap.of("country", countries[i]),
+                            "identifiers", ImmutableMap.of("user", "user" + i),
+                            "test", ImmutableList.of("country_tst")));
+        }
+        return entries;
+    }
+
+    private static String toJson(final Object value) throws IOException {
+        return OBJECT_MAPPER.writeValueAsString(value);
+    }
+}
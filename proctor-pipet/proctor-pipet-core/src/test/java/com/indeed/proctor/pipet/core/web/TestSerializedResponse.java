@@ -0,0 +1,114 @@
+package com.indeed.proctor.pipet.core.web;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestSerializedResponse {
+    private static final byte[] BODY = "{\"tests\": {}}".getBytes(StandardCharsets.UTF_8);
+
+    private final SerializedResponse serializedResponse = new SerializedResponse(BODY);
+
+    @Test
+    public void testIdentity() throws IOException {
+        final MockHttpServletResponse response = write(new MockHttpServletRequest());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(
+                        ByteStreams.toByteArray(
+                                new GZIPInputStream(
+                                        new ByteArrayInputStream(
+                                                response.getContentAsByteArray()))))
+                .isEqualTo(BODY);
+    }
+
+    @Test
+    public void testAcceptsGzip() {
+        assertThat(SerializedResponse.acceptsGzip(null)).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("deflate, br")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("GZIP")).isTrue();
+        assertThat(SerializedResponse.acceptsGzip("deflate, gzip;q=0.5")).isTrue();
+        assertThat(SerializedResponse.acceptsGzip("x-gzip")).isTrue();
+        assertThat(SerializedResponse.acceptsGzip("*")).isTrue();
+
+        // explicitly refused
+        assertThat(SerializedResponse.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("gzip; q=0.000, deflate")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("*, gzip;q=0")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("*;q=0")).isFalse();
+        assertThat(SerializedResponse.acceptsGzip("gzip;q=invalid")).isFalse();
+        // not a gzip coding
+        assertThat(SerializedResponse.acceptsGzip("gzipped")).isFalse();
+    }
+
+    @Test
+    public void testRefusedGzip() throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Accept-Encoding", "gzip;q=0, identity");
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(BODY);
+    }
+
+    @Test
+    public void testConditionalRequest() throws IOException {
+        final String entityTag = write(new MockHttpServletRequest()).getHeader("ETag");
+        assertThat(entityTag).isNotNull();
+
+        final MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("If-None-Match", entityTag);
+        final MockHttpServletResponse notModified = write(request);
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        // the tag of the identity encoding doesn't match the gzip encoding
+        request.addHeader("Accept-Encoding", "gzip");
+        final MockHttpServletResponse gzipped = write(request);
+        assertThat(gzipped.getStatus()).isEqualTo(200);
+        assertThat(gzipped.getHeader("ETag")).isNotEqualTo(entityTag);
+
+        // different content, different tag
+        assertThat(
+                        write(
+                                        new SerializedResponse(new byte[] {'{', '}'}),
+                                        new MockHttpServletRequest())
+                                .getHeader("ETag"))
+                .isNotEqualTo(entityTag);
+    }
+
+    private MockHttpServletResponse write(final MockHttpServletRequest request)
+            throws IOException {
+        return write(serializedResponse, request);
+    }
+
+    private static MockHttpServletResponse write(
+            final SerializedResponse serializedResponse, final MockHttpServletRequest request)
+            throws IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        serializedResponse.writeTo(request, response);
+        return response;
+    }
+}
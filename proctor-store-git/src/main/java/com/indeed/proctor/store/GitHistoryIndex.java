@@ -0,0 +1,66 @@
+package com.indeed.proctor.store;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.Repository;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Histories of all tests, kept between calls and updated with commits made since the last indexed
+ * head only. A full parse is needed initially and when the last indexed head is no longer an
+ * ancestor of the new head, e.g. after a force push.
+ *
+ * <p>Revision lists in the index are never modified once added, only replaced.
+ */
+class GitHistoryIndex {
+    private static final Logger LOGGER = LogManager.getLogger(GitHistoryIndex.class);
+
+    private final Repository repository;
+    private final String testDefinitionsDirectory;
+    private final ModifiedTestsCache modifiedTestsCache;
+
+    @Nullable private ObjectId indexedHead;
+    private Map<String, List<Revision>> histories = Collections.emptyMap();
+
+    GitHistoryIndex(
+            final Repository repository,
+            final String testDefinitionsDirectory,
+            final ModifiedTestsCache modifiedTestsCache) {
+        this.repository = repository;
+        this.testDefinitionsDirectory = testDefinitionsDirectory;
+        this.modifiedTestsCache = modifiedTestsCache;
+    }
+
+    /** @return a new map of testnames and git commits making changes to given tests */
+    @Nonnull
+    synchronized Map<String, List<Revision>> getAllHistories(final ObjectId head)
+            throws IOException {
+        if (!head.equals(indexedHead)) {
+            final GitHistoryParser historyParser =
+                    GitHistoryParser.fromRepository(
+                            repository, testDefinitionsDirectory, modifiedTestsCache);
+            if ((indexedHead != null) && historyParser.isAncestor(indexedHead, head)) {
+                histories = historyParser.parseNewCommits(head, indexedHead, histories);
+            } else {
+                if (indexedHead != null) {
+                    LOGGER.info(
+                            "Reindexing all histories as "
+                                    + indexedHead.getName()
+                                    + " is not an ancestor of "
+                                    + head.getName());
+                }
+                histories = historyParser.parseFromHead(head);
+            }
+            indexedHead = head.copy();
+        }
+        return new HashMap<>(histories);
+    }
+}
@@ -1,15 +1,13 @@
 package com.indeed.proctor.store;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Throwables;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Sets;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.jgit.diff.DiffEntry;
 import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.diff.RawTextComparator;
+import org.eclipse.jgit.errors.MissingObjectException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -22,13 +20,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -40,20 +38,24 @@ class GitHistoryParser {
 
     private static final int EXPECTED_NUMBER_ACTIVE_TESTS = 7000;
 
+    private static final Comparator<Revision> NEWEST_FIRST =
+            (o1, o2) -> o2.getDate().compareTo(o1.getDate());
+
     private final RevWalk revWalk;
     private final DiffFormatter diffFormatter;
     private final Pattern testNamePattern;
 
-    private static final Cache<String, List<DiffEntry>> DIFF_ENTRIES_CACHE =
-            CacheBuilder.newBuilder().build();
+    private final ModifiedTestsCache modifiedTestsCache;
 
     private GitHistoryParser(
             final RevWalk revWalk,
             final DiffFormatter diffFormatter,
-            final String definitionDirectory) {
+            final String definitionDirectory,
+            final ModifiedTestsCache modifiedTestsCache) {
         this.revWalk = revWalk;
         this.diffFormatter = diffFormatter;
         testNamePattern = compileTestNamePattern(definitionDirectory);
+        this.modifiedTestsCache = modifiedTestsCache;
     }
 
     /** @return a map of testnames and git commits making changes to given tests */
@@ -77,6 +79,59 @@ class GitHistoryParser {
         return histories;
     }
 
+    /**
+     * @return true if the commit of ancestor is reachable from the commit of head, false also if
+     *     ancestor doesn't exist anymore
+     */
+    boolean isAncestor(final ObjectId ancestor, final ObjectId head) throws IOException {
+        try {
+            return revWalk.isMergedInto(revWalk.parseCommit(ancestor), revWalk.parseCommit(head));
+        } catch (final MissingObjectException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param histories histories of all commits reachable from previousHead, not modified
+     * @return a map of testnames and git commits making changes to given tests, as if parsed from
+     *     head, but only parsing commits not reachable from previousHead
+     */
+    Map<String, List<Revision>> parseNewCommits(
+            final ObjectId head,
+            final ObjectId previousHead,
+            final Map<String, List<Revision>> histories)
+            throws IOException {
+        final Map<String, List<Revision>> newHistories = new HashMap<>();
+        revWalk.reset();
+        revWalk.markStart(revWalk.parseCommit(head));
+        revWalk.markUninteresting(revWalk.parseCommit(previousHead));
+        for (final RevCommit commit : revWalk) {
+            for (final String testName : getModifiedTests(commit)) {
+                newHistories
+                        .computeIfAbsent(testName, x -> new ArrayList<>())
+                        .add(createRevisionFromCommit(commit));
+            }
+        }
+        revWalk.reset();
+
+        final Map<String, List<Revision>> result = new HashMap<>(histories);
+        newHistories.forEach(
+                (testName, revisions) ->
+                        result.merge(
+                                testName,
+                                revisions,
+                                (previous, added) -> {
+                                    final List<Revision> merged = new ArrayList<>(added);
+                                    merged.addAll(previous);
+                                    return merged;
+                                }));
+        // only lists with added revisions need sorting
+        for (final String testName : newHistories.keySet()) {
+            result.get(testName).sort(NEWEST_FIRST);
+        }
+        return result;
+    }
+
     /** @return a revision details for a single revision */
     @Nonnull
     RevisionDetails parseRevisionDetails(final ObjectId revisionId) throws IOException {
@@ -111,12 +166,22 @@ class GitHistoryParser {
     }
 
     private Set<String> getModifiedTests(final RevCommit commit) throws IOException {
+        final Set<String> cached = modifiedTestsCache.get(commit);
+        if (cached != null) {
+            return cached;
+        }
+        final Set<String> modifiedTests = diffModifiedTests(commit);
+        modifiedTestsCache.put(commit, modifiedTests);
+        return modifiedTests;
+    }
+
+    private Set<String> diffModifiedTests(final RevCommit commit) throws IOException {
         final RevCommit[] parents = commit.getParents();
         final Set<String> result = new HashSet<>();
         if (parents.length == 1) { // merge commit if length > 1
             final RevCommit parent = revWalk.parseCommit(parents[0].getId());
             // get diff of this commit to its parent, as list of paths
-            final List<DiffEntry> diffs = getDiffEntries(commit, parent);
+            final List<DiffEntry> diffs = diffFormatter.scan(parent.getTree(), commit.getTree());
             for (final DiffEntry diff : diffs) {
                 final String changePath =
                         diff.getChangeType().equals(DiffEntry.ChangeType.DELETE)
@@ -133,22 +198,10 @@ class GitHistoryParser {
         return result;
     }
 
-    private List<DiffEntry> getDiffEntries(final RevCommit commit, final RevCommit parent)
-            throws IOException {
-        try {
-            return DIFF_ENTRIES_CACHE.get(
-                    commit.getName(), () -> diffFormatter.scan(parent.getTree(), commit.getTree()));
-        } catch (final ExecutionException e) {
-            Throwables.propagateIfInstanceOf(e.getCause(), IOException.class);
-            throw Throwables.propagate(e.getCause());
-        }
-    }
-
     @VisibleForTesting
     static void sortByDate(final Map<String, List<Revision>> histories) {
-        final Comparator<Revision> comparator = (o1, o2) -> o2.getDate().compareTo(o1.getDate());
         for (final List<Revision> revisions : histories.values()) {
-            revisions.sort(comparator);
+            revisions.sort(NEWEST_FIRST);
         }
     }
 
@@ -175,12 +228,14 @@ class GitHistoryParser {
     }
 
     static GitHistoryParser fromRepository(
-            final Repository repository, final String testDefinitionDirectory) {
+            final Repository repository,
+            final String testDefinitionDirectory,
+            final ModifiedTestsCache modifiedTestsCache) {
         final RevWalk revWalk = new RevWalk(repository);
         final DiffFormatter df = new DiffFormatter(DisabledOutputStream.INSTANCE);
         df.setRepository(repository);
         df.setDiffComparator(RawTextComparator.DEFAULT);
         df.setDetectRenames(false); // to regard rename changes as add and remove
-        return new GitHistoryParser(revWalk, df, testDefinitionDirectory);
+        return new GitHistoryParser(revWalk, df, testDefinitionDirectory, modifiedTestsCache);
     }
 }
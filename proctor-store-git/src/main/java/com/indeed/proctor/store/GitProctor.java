@@ -42,6 +42,8 @@ public class GitProctor extends FileBasedProctorStore {
 
     private final Git git;
     @Nullable private final String branchName;
+    private final ModifiedTestsCache modifiedTestsCache;
+    private final GitHistoryIndex historyIndex;
 
     public GitProctor(
             final String gitPath,
@@ -93,11 +95,33 @@ public class GitProctor extends FileBasedProctorStore {
         super(core, testDefinitionsDirectory);
         git = core.getGit();
         this.branchName = branchName;
+        modifiedTestsCache =
+                createModifiedTestsCache(git.getRepository(), getTestDefinitionsDirectory());
+        historyIndex =
+                new GitHistoryIndex(
+                        git.getRepository(), getTestDefinitionsDirectory(), modifiedTestsCache);
         if (branchName != null) {
             checkoutBranch(branchName);
         }
     }
 
+    /**
+     * Modified tests are kept in a file inside the git directory, so they survive restarts as long
+     * as the local repository does
+     */
+    private static ModifiedTestsCache createModifiedTestsCache(
+            final Repository repository, final String testDefinitionsDirectory) {
+        final File gitDirectory = repository.getDirectory();
+        if (gitDirectory == null) {
+            return ModifiedTestsCache.inMemory();
+        }
+        return ModifiedTestsCache.persistedIn(
+                new File(
+                        gitDirectory,
+                        "proctor-modified-tests-"
+                                + testDefinitionsDirectory.replaceAll("\\W", "_")));
+    }
+
     @Override
     public void verifySetup() throws StoreException {
         final String refName = getGitCore().getRefName();
@@ -206,7 +230,7 @@ public class GitProctor extends FileBasedProctorStore {
             }
             final GitHistoryParser historyParser =
                     GitHistoryParser.fromRepository(
-                            git.getRepository(), getTestDefinitionsDirectory());
+                            git.getRepository(), getTestDefinitionsDirectory(), modifiedTestsCache);
             return historyParser.parseRevisionDetails(objectId);
         } catch (final MissingObjectException e) {
             LOGGER.debug("unknown revision " + revisionId, e);
@@ -237,10 +261,7 @@ public class GitProctor extends FileBasedProctorStore {
         final Repository repository = git.getRepository();
         try {
             final ObjectId head = repository.resolve(Constants.HEAD);
-            final GitHistoryParser historyParser =
-                    GitHistoryParser.fromRepository(
-                            git.getRepository(), getTestDefinitionsDirectory());
-            return historyParser.parseFromHead(head);
+            return historyIndex.getAllHistories(head);
         } catch (final IOException e) {
             throw new StoreException("Could not get history " + getGitCore().getRefName(), e);
         }
@@ -281,4 +302,13 @@ public class GitProctor extends FileBasedProctorStore {
     public String getName() {
         return "GitProctor-" + branchName;
     }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            modifiedTestsCache.close();
+        } finally {
+            super.close();
+        }
+    }
 }
@@ -0,0 +1,237 @@
+package com.indeed.proctor.store;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.hash.Hashing;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jgit.lib.AnyObjectId;
+import org.eclipse.jgit.lib.ObjectId;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bounded cache of the names of tests modified by each commit, so that histories can be parsed
+ * without diffing the trees of commits again.
+ *
+ * <p>If a file is given, entries are appended to it and loaded from it on creation, so that a
+ * restarted process does not need to diff all commits again. Each line holds a commit id followed
+ * by the modified test names, separated by spaces, and ends with a checksum of the line. Lines
+ * with a wrong checksum or without line break, e.g. partially written by a crashed process, are
+ * ignored, as entries of commits are never verified again. Failures to read or write the file are
+ * logged and otherwise ignored.
+ */
+class ModifiedTestsCache implements Closeable {
+    private static final Logger LOGGER = LogManager.getLogger(ModifiedTestsCache.class);
+
+    /** maximum sum of commits and test names in the cache, roughly a few tens of MB */
+    static final long DEFAULT_MAXIMUM_WEIGHT = 1_000_000;
+
+    private static final Splitter SPLITTER = Splitter.on(' ').omitEmptyStrings();
+    private static final String CHECKSUM_PREFIX = " #";
+
+    private final Cache<ObjectId, Set<String>> cache;
+    private final Interner<String> testNames = Interners.newWeakInterner();
+    private final long maximumWeight;
+    @Nullable private final File file;
+    @Nullable private Writer writer;
+    // true if the file ends with a partially written line, which must not be continued
+    private boolean unterminated;
+
+    @VisibleForTesting
+    ModifiedTestsCache(final long maximumWeight, @Nullable final File file) {
+        this.cache =
+                CacheBuilder.newBuilder()
+                        .maximumWeight(maximumWeight)
+                        .weigher((ObjectId commit, Set<String> tests) -> 1 + tests.size())
+                        .build();
+        this.maximumWeight = maximumWeight;
+        this.file = file;
+        if (file != null) {
+            load(file);
+        }
+    }
+
+    /** @return a cache not persisting entries */
+    static ModifiedTestsCache inMemory() {
+        return new ModifiedTestsCache(DEFAULT_MAXIMUM_WEIGHT, null);
+    }
+
+    /** @return a cache persisting entries in the given file */
+    static ModifiedTestsCache persistedIn(@Nonnull final File file) {
+        return new ModifiedTestsCache(DEFAULT_MAXIMUM_WEIGHT, file);
+    }
+
+    /** @return names of tests modified by the commit, null if not cached */
+    @CheckForNull
+    Set<String> get(@Nonnull final AnyObjectId commit) {
+        return cache.getIfPresent(commit);
+    }
+
+    void put(@Nonnull final AnyObjectId commit, @Nonnull final Set<String> modifiedTests) {
+        final Set<String> tests = intern(modifiedTests);
+        final ObjectId commitId = commit.copy();
+        cache.put(commitId, tests);
+        if (file != null) {
+            append(commitId, tests);
+        }
+    }
+
+    private Set<String> intern(final Iterable<String> tests) {
+        final ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (final String test : tests) {
+            builder.add(testNames.intern(test));
+        }
+        return builder.build();
+    }
+
+    private synchronized void append(final ObjectId commitId, final Set<String> tests) {
+        try {
+            if (writer == null) {
+                writer =
+                        Files.newBufferedWriter(
+                                file.toPath(),
+                                StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.APPEND);
+                if (unterminated) {
+                    writer.write('\n');
+                    unterminated = false;
+                }
+            }
+            writeLine(writer, commitId, tests);
+            writer.flush();
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to write modified tests to " + file, e);
+        }
+    }
+
+    /** Closes the file entries are appended to, which is opened again by the next put */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void load(final File file) {
+        if (!file.exists()) {
+            return;
+        }
+        long lines = 0;
+        try (BufferedReader reader =
+                Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            final StringBuilder line = new StringBuilder();
+            while (readLine(reader, line)) {
+                lines++;
+                final String content = verifyChecksum(line.toString());
+                if (content == null) {
+                    LOGGER.warn("Ignoring corrupted line " + lines + " of " + file);
+                    continue;
+                }
+                final List<String> fields = SPLITTER.splitToList(content);
+                if (fields.isEmpty() || !ObjectId.isId(fields.get(0))) {
+                    LOGGER.warn("Ignoring invalid line " + lines + " of " + file);
+                    continue;
+                }
+                cache.put(
+                        ObjectId.fromString(fields.get(0)),
+                        intern(fields.subList(1, fields.size())));
+            }
+            // not loaded, as the rest of the line may be missing
+            unterminated = line.length() > 0;
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to read modified tests from " + file, e);
+            return;
+        }
+        if (lines > maximumWeight) {
+            // keep the file from growing without bound, only retaining cached entries
+            compact(file);
+        }
+    }
+
+    private void compact(final File file) {
+        final File tmpFile = new File(file.getPath() + ".tmp");
+        try {
+            try (BufferedWriter out =
+                    Files.newBufferedWriter(tmpFile.toPath(), StandardCharsets.UTF_8)) {
+                for (final Map.Entry<ObjectId, Set<String>> entry : cache.asMap().entrySet()) {
+                    writeLine(out, entry.getKey(), entry.getValue());
+                }
+            }
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            unterminated = false;
+        } catch (final IOException e) {
+            LOGGER.warn("Failed to compact " + file, e);
+        }
+    }
+
+    /**
+     * Reads the next line terminated by a line break into the builder
+     *
+     * @return false at the end of the file, leaving an unterminated last line in the builder
+     */
+    private static boolean readLine(final Reader reader, final StringBuilder line)
+            throws IOException {
+        line.setLength(0);
+        int c;
+        while ((c = reader.read()) >= 0) {
+            if (c == '\n') {
+                return true;
+            }
+            line.append((char) c);
+        }
+        return false;
+    }
+
+    /** @return the line without checksum, null if the checksum is missing or wrong */
+    @CheckForNull
+    private static String verifyChecksum(final String line) {
+        final int index = line.lastIndexOf(CHECKSUM_PREFIX);
+        if (index < 0) {
+            return null;
+        }
+        final String content = line.substring(0, index);
+        final String checksum = line.substring(index + CHECKSUM_PREFIX.length());
+        return checksum.equals(checksum(content)) ? content : null;
+    }
+
+    private static String checksum(final String content) {
+        return Hashing.crc32().hashString(content, StandardCharsets.UTF_8).toString();
+    }
+
+    private static void writeLine(
+            final Writer writer, final ObjectId commitId, final Set<String> tests)
+            throws IOException {
+        final StringBuilder content = new StringBuilder(commitId.getName());
+        for (final String test : tests) {
+            content.append(' ').append(test);
+        }
+        writer.write(content.toString());
+        writer.write(CHECKSUM_PREFIX);
+        writer.write(checksum(content.toString()));
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,122 @@
+package com.indeed.proctor.store;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.ResetCommand;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GitHistoryIndexTest {
+    @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private Git git;
+    private GitHistoryIndex historyIndex;
+    private int commitCount = 0;
+    private final long startMillis = System.currentTimeMillis();
+
+    @Before
+    public void setUp() throws IOException, GitAPIException {
+        git = Git.init().setDirectory(testFolder.getRoot()).call();
+        // changes of the root commit are not part of histories
+        testFolder.newFile(".gitkeep");
+        git.add().addFilepattern(".gitkeep").call();
+        git.commit().setMessage("initial commit").call();
+        historyIndex =
+                new GitHistoryIndex(
+                        git.getRepository(),
+                        FileBasedProctorStore.DEFAULT_TEST_DEFINITIONS_DIRECTORY,
+                        ModifiedTestsCache.inMemory());
+    }
+
+    @Test
+    public void testIncrementalUpdate() throws Exception {
+        final String revision1 = commitDefinition("a_tst");
+        final String revision2 = commitDefinition("b_tst");
+        assertThat(getAllHistories()).containsOnlyKeys("a_tst", "b_tst");
+
+        final String revision3 = commitDefinition("a_tst");
+        final String revision4 = commitDefinition("c_tst");
+
+        final Map<String, List<Revision>> histories = getAllHistories();
+        assertThat(histories).containsOnlyKeys("a_tst", "b_tst", "c_tst");
+        assertThat(histories.get("a_tst"))
+                .extracting(Revision::getRevision)
+                .containsExactly(revision3, revision1);
+        assertThat(histories.get("b_tst"))
+                .extracting(Revision::getRevision)
+                .containsExactly(revision2);
+        assertThat(histories.get("c_tst"))
+                .extracting(Revision::getRevision)
+                .containsExactly(revision4);
+
+        // unchanged head
+        assertThat(getAllHistories()).isEqualTo(histories);
+    }
+
+    @Test
+    public void testRewrittenHistory() throws Exception {
+        final String revision1 = commitDefinition("a_tst");
+        commitDefinition("b_tst");
+        assertThat(getAllHistories()).containsOnlyKeys("a_tst", "b_tst");
+
+        git.reset().setMode(ResetCommand.ResetType.HARD).setRef(revision1).call();
+        final String revision3 = commitDefinition("c_tst");
+
+        final Map<String, List<Revision>> histories = getAllHistories();
+        assertThat(histories).containsOnlyKeys("a_tst", "c_tst");
+        assertThat(histories.get("c_tst"))
+                .extracting(Revision::getRevision)
+                .containsExactly(revision3);
+    }
+
+    private Map<String, List<Revision>> getAllHistories() throws IOException {
+        return historyIndex.getAllHistories(git.getRepository().resolve(Constants.HEAD));
+    }
+
+    /** @return revision of a new commit changing the definition of the test */
+    private String commitDefinition(final String testName) throws IOException, GitAPIException {
+        commitCount++;
+        final File definition =
+                testFolder
+                        .getRoot()
+                        .toPath()
+                        .resolve(FileBasedProctorStore.DEFAULT_TEST_DEFINITIONS_DIRECTORY)
+                        .resolve(testName)
+                        .resolve(FileBasedProctorStore.TEST_DEFINITION_FILENAME)
+                        .toFile();
+        definition.getParentFile().mkdirs();
+        Files.write(
+                definition.toPath(),
+                ("{\"version\": " + commitCount + "}").getBytes(StandardCharsets.UTF_8));
+        git.add().addFilepattern(".").call();
+        // distinct commit times after the initial commit to have a well defined order
+        final PersonIdent ident =
+                new PersonIdent(
+                        "author",
+                        "author@example.com",
+                        new Date(startMillis + (commitCount * 60000L)),
+                        TimeZone.getTimeZone("UTC"));
+        return git.commit()
+                .setAuthor(ident)
+                .setCommitter(ident)
+                .setMessage("commit " + commitCount)
+                .call()
+                .getId()
+                .getName();
+    }
+}
@@ -0,0 +1,94 @@
+package com.indeed.proctor.store;
+
+import com.google.common.collect.ImmutableSet;
+import org.eclipse.jgit.lib.ObjectId;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModifiedTestsCacheTest {
+    private static final ObjectId COMMIT1 =
+            ObjectId.fromString("0123456789012345678901234567890123456789");
+    private static final ObjectId COMMIT2 =
+            ObjectId.fromString("abcdefabcdefabcdefabcdefabcdefabcdefabcd");
+
+    @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+    @Test
+    public void testInMemory() {
+        final ModifiedTestsCache cache = ModifiedTestsCache.inMemory();
+        assertThat(cache.get(COMMIT1)).isNull();
+
+        cache.put(COMMIT1, ImmutableSet.of("a_tst", "b_tst"));
+        cache.put(COMMIT2, Collections.emptySet());
+
+        assertThat(cache.get(COMMIT1)).containsOnly("a_tst", "b_tst");
+        assertThat(cache.get(COMMIT2)).isEmpty();
+    }
+
+    @Test
+    public void testPersistence() throws Exception {
+        final File file = new File(testFolder.getRoot(), "modified-tests");
+        final ModifiedTestsCache cache = ModifiedTestsCache.persistedIn(file);
+        cache.put(COMMIT1, ImmutableSet.of("a_tst", "b_tst"));
+        cache.put(COMMIT2, Collections.emptySet());
+        // partially written line of a crashed process
+        Files.write(
+                file.toPath(), "0123".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        final ModifiedTestsCache reloaded = ModifiedTestsCache.persistedIn(file);
+
+        assertThat(reloaded.get(COMMIT1)).containsOnly("a_tst", "b_tst");
+        assertThat(reloaded.get(COMMIT2)).isEmpty();
+    }
+
+    @Test
+    public void testTruncatedLines() throws Exception {
+        final File file = new File(testFolder.getRoot(), "modified-tests");
+        final ModifiedTestsCache cache = ModifiedTestsCache.persistedIn(file);
+        cache.put(COMMIT1, ImmutableSet.of("a_tst", "b_tst"));
+        cache.close();
+        final String line = Files.readAllLines(file.toPath()).get(0);
+        // line of a valid commit id cut off within the test names, once terminated
+        Files.write(
+                file.toPath(),
+                (COMMIT2.getName() + " a_tst b_t\n" + line.substring(0, line.length() - 1))
+                        .getBytes(StandardCharsets.UTF_8));
+
+        final ModifiedTestsCache reloaded = ModifiedTestsCache.persistedIn(file);
+        assertThat(reloaded.get(COMMIT1)).isNull();
+        assertThat(reloaded.get(COMMIT2)).isNull();
+
+        // not continuing the unterminated last line
+        reloaded.put(COMMIT2, ImmutableSet.of("c_tst"));
+        reloaded.close();
+        final ModifiedTestsCache reloadedAgain = ModifiedTestsCache.persistedIn(file);
+        assertThat(reloadedAgain.get(COMMIT1)).isNull();
+        assertThat(reloadedAgain.get(COMMIT2)).containsOnly("c_tst");
+    }
+
+    @Test
+    public void testBoundedFile() throws Exception {
+        final File file = new File(testFolder.getRoot(), "modified-tests");
+        final ModifiedTestsCache cache = new ModifiedTestsCache(2, file);
+        cache.put(COMMIT1, Collections.emptySet());
+        cache.put(COMMIT1, Collections.emptySet());
+        cache.put(COMMIT2, Collections.emptySet());
+        assertThat(Files.readAllLines(file.toPath())).hasSize(3);
+
+        // loading compacts the file to the cached entries
+        final ModifiedTestsCache reloaded = new ModifiedTestsCache(2, file);
+
+        assertThat(Files.readAllLines(file.toPath())).hasSize(2);
+        assertThat(reloaded.get(COMMIT1)).isEmpty();
+        assertThat(reloaded.get(COMMIT2)).isEmpty();
+    }
+}
@@ -0,0 +1,151 @@
+package com.indeed.proctor.store;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntry;
+import org.tmatesoft.svn.core.SVNLogEntryPath;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import org.tmatesoft.svn.core.SVNRevisionProperty;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Histories of all tests, built from a single svn log of the test definitions directory with
+ * changed paths, and kept between calls to only log revisions committed since the last indexed
+ * revision.
+ *
+ * <p>Like the logs of each test, the log follows the directory back to the source of copies, e.g.
+ * of a branch, so revisions before a copy are assigned to tests by their path in the source.
+ *
+ * <p>Revision lists in the index are never modified once added, only replaced.
+ */
+class SvnHistoryIndex {
+    private final SVNURL svnUrl;
+    private final String testDefinitionsDirectory;
+
+    private long indexedRevision = 0;
+    private Map<String, List<Revision>> histories = Collections.emptyMap();
+
+    SvnHistoryIndex(final SVNURL svnUrl, final String testDefinitionsDirectory) {
+        this.svnUrl = svnUrl;
+        this.testDefinitionsDirectory = testDefinitionsDirectory;
+    }
+
+    /**
+     * @return a new map of test names and revisions changing them, newest first, including tests
+     *     deleted since
+     */
+    @Nonnull
+    synchronized Map<String, List<Revision>> getAllHistories(
+            final SVNRepository repo, final SVNClientManager clientManager) throws SVNException {
+        final long latestRevision = repo.getLatestRevision();
+        // not indexed until the directory exists, as it may be copied with earlier revisions
+        if ((latestRevision > indexedRevision)
+                && (repo.checkPath(testDefinitionsDirectory, latestRevision) != SVNNodeKind.NONE)) {
+            histories = logNewRevisions(repo, clientManager, latestRevision);
+            indexedRevision = latestRevision;
+        }
+        return new HashMap<>(histories);
+    }
+
+    private Map<String, List<Revision>> logNewRevisions(
+            final SVNRepository repo,
+            final SVNClientManager clientManager,
+            final long latestRevision)
+            throws SVNException {
+        // changed paths are absolute in the repository, path of the directory in the revision
+        // of the current log entry, changed by copies as entries are logged newest first
+        final String[] directoryPath = {repo.getRepositoryPath(testDefinitionsDirectory)};
+        final Map<String, List<Revision>> newRevisions = new HashMap<>();
+
+        // In order to get history is "descending" order, the startRevision should be the one
+        // closer to HEAD
+        clientManager
+                .getLogClient()
+                .doLog(
+                        svnUrl,
+                        new String[] {testDefinitionsDirectory},
+                        /* pegRevision */ SVNRevision.create(latestRevision),
+                        SVNRevision.create(latestRevision),
+                        SVNRevision.create(indexedRevision + 1),
+                        /* stopOnCopy */ false,
+                        /* discoverChangedPaths */ true,
+                        /* includeMergedRevisions */ false,
+                        /* limit */ 0,
+                        new String[] {
+                            SVNRevisionProperty.LOG,
+                            SVNRevisionProperty.AUTHOR,
+                            SVNRevisionProperty.DATE
+                        },
+                        entry -> {
+                            final Revision revision = toRevision(entry);
+                            for (final String testName :
+                                    getChangedTests(entry, directoryPath[0] + "/")) {
+                                newRevisions
+                                        .computeIfAbsent(testName, k -> new ArrayList<>())
+                                        .add(revision);
+                            }
+                            directoryPath[0] = getCopySourcePath(entry, directoryPath[0]);
+                        });
+
+        final Map<String, List<Revision>> result = new HashMap<>(histories);
+        for (final Map.Entry<String, List<Revision>> entry : newRevisions.entrySet()) {
+            final List<Revision> revisions = entry.getValue();
+            revisions.addAll(result.getOrDefault(entry.getKey(), Collections.emptyList()));
+            result.put(entry.getKey(), revisions);
+        }
+        return result;
+    }
+
+    private static Set<String> getChangedTests(
+            final SVNLogEntry entry, final String directoryPath) {
+        final Set<String> testNames = new LinkedHashSet<>();
+        for (final String path : entry.getChangedPaths().keySet()) {
+            if (path.startsWith(directoryPath)) {
+                final int end = path.indexOf('/', directoryPath.length());
+                testNames.add(
+                        path.substring(directoryPath.length(), (end < 0) ? path.length() : end));
+            }
+        }
+        return testNames;
+    }
+
+    /**
+     * @return path of the directory before the revision of the entry, different from the given
+     *     path if the entry copied the directory or one of its parents
+     */
+    private static String getCopySourcePath(final SVNLogEntry entry, final String directoryPath) {
+        String copiedPath = null;
+        String copySourcePath = null;
+        for (final SVNLogEntryPath changedPath : entry.getChangedPaths().values()) {
+            final String path = changedPath.getPath();
+            if ((changedPath.getCopyPath() != null)
+                    && (directoryPath.equals(path) || directoryPath.startsWith(path + "/"))
+                    && ((copiedPath == null) || (path.length() > copiedPath.length()))) {
+                copiedPath = path;
+                copySourcePath = changedPath.getCopyPath();
+            }
+        }
+        return (copiedPath == null)
+                ? directoryPath
+                : copySourcePath + directoryPath.substring(copiedPath.length());
+    }
+
+    private static Revision toRevision(final SVNLogEntry entry) {
+        return new Revision(
+                String.valueOf(entry.getRevision()),
+                entry.getAuthor(),
+                entry.getDate(),
+                entry.getMessage());
+    }
+}
@@ -38,6 +38,7 @@ public class SvnProctor extends FileBasedProctorStore {
     */
 
     private final SVNURL svnUrl;
+    private final SvnHistoryIndex historyIndex;
 
     public SvnProctor(final String svnPath, final String username, final String password)
             throws IOException {
@@ -67,6 +68,7 @@ public class SvnProctor extends FileBasedProctorStore {
     public SvnProctor(final SvnPersisterCore core, final String testDefinitionsDirectory) {
         super(core, testDefinitionsDirectory);
         this.svnUrl = core.getSvnUrl();
+        this.historyIndex = new SvnHistoryIndex(svnUrl, getTestDefinitionsDirectory());
     }
 
     @Nonnull
@@ -166,9 +168,30 @@ public class SvnProctor extends FileBasedProctorStore {
             return Collections.emptyMap();
         }
 
+        final Map<String, List<Revision>> allHistories =
+                getSvnCore()
+                        .doWithClientAndRepository(
+                                new SvnPersisterCore.SvnOperation<Map<String, List<Revision>>>() {
+                                    @Override
+                                    public Map<String, List<Revision>> execute(
+                                            final SVNRepository repo,
+                                            final SVNClientManager clientManager)
+                                            throws Exception {
+                                        return historyIndex.getAllHistories(repo, clientManager);
+                                    }
+
+                                    @Override
+                                    public StoreException handleException(final Exception e)
+                                            throws StoreException {
+                                        throw new StoreException.ReadException(
+                                                "Unable to get histories of all tests", e);
+                                    }
+                                });
+
+        // only tests in the current matrix, like getHistory of each test would
         final Map<String, List<Revision>> histories = Maps.newHashMap();
         for (final String test : testMatrixDefinition.getTests().keySet()) {
-            histories.put(test, getHistory(test, 0, Integer.MAX_VALUE));
+            histories.put(test, allHistories.getOrDefault(test, Collections.emptyList()));
         }
         return histories;
     }
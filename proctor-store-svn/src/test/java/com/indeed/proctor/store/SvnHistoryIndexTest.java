@@ -0,0 +1,126 @@
+package com.indeed.proctor.store;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.SVNClientManager;
+import org.tmatesoft.svn.core.wc.SVNCopySource;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SvnHistoryIndexTest {
+    @Rule public TemporaryFolder testFolder = new TemporaryFolder();
+
+    private SVNURL rootUrl;
+    private SVNClientManager clientManager;
+
+    @Before
+    public void setUp() throws SVNException {
+        FSRepositoryFactory.setup();
+        rootUrl =
+                SVNRepositoryFactory.createLocalRepository(
+                        new File(testFolder.getRoot(), "repo"), true, false);
+        clientManager = SVNClientManager.newInstance();
+    }
+
+    @After
+    public void tearDown() {
+        clientManager.dispose();
+    }
+
+    @Test
+    public void testHistoriesBeforeCopy() throws SVNException {
+        final long a = mkdir("trunk/test-definitions/a_tst");
+        final long b = mkdir("trunk/test-definitions/b_tst");
+        copy("trunk", "branches/b");
+        final long c = mkdir("branches/b/test-definitions/c_tst");
+
+        final SVNURL branchUrl = rootUrl.appendPath("branches/b", false);
+        final SvnHistoryIndex index = new SvnHistoryIndex(branchUrl, "test-definitions");
+        final Map<String, List<String>> histories = getAllHistories(index, branchUrl);
+
+        assertThat(histories).containsOnlyKeys("a_tst", "b_tst", "c_tst");
+        assertThat(histories.get("a_tst")).containsExactly(String.valueOf(a));
+        assertThat(histories.get("b_tst")).containsExactly(String.valueOf(b));
+        assertThat(histories.get("c_tst")).containsExactly(String.valueOf(c));
+
+        // only new revisions are logged, prepended to the indexed ones
+        final long a2 = mkdir("branches/b/test-definitions/a_tst/v2");
+        assertThat(getAllHistories(index, branchUrl).get("a_tst"))
+                .containsExactly(String.valueOf(a2), String.valueOf(a));
+    }
+
+    @Test
+    public void testDirectoryCreatedAfterIndexing() throws SVNException {
+        final long a = mkdir("trunk/test-definitions/a_tst");
+        final SVNURL trunkUrl = rootUrl.appendPath("trunk", false);
+        final SvnHistoryIndex index = new SvnHistoryIndex(trunkUrl, "moved-definitions");
+        assertThat(getAllHistories(index, trunkUrl)).isEmpty();
+
+        // revisions logged while the directory was missing are indexed once it exists
+        copy("trunk/test-definitions", "trunk/moved-definitions");
+        final Map<String, List<String>> histories = getAllHistories(index, trunkUrl);
+        assertThat(histories).containsOnlyKeys("a_tst");
+        assertThat(histories.get("a_tst")).containsExactly(String.valueOf(a));
+    }
+
+    private Map<String, List<String>> getAllHistories(
+            final SvnHistoryIndex index, final SVNURL url) throws SVNException {
+        final SVNRepository repo = SVNRepositoryFactory.create(url);
+        try {
+            return index.getAllHistories(repo, clientManager).entrySet().stream()
+                    .collect(
+                            Collectors.toMap(
+                                    Map.Entry::getKey,
+                                    e ->
+                                            e.getValue().stream()
+                                                    .map(Revision::getRevision)
+                                                    .collect(Collectors.toList())));
+        } finally {
+            repo.closeSession();
+        }
+    }
+
+    private long mkdir(final String path) throws SVNException {
+        return clientManager
+                .getCommitClient()
+                .doMkDir(
+                        new SVNURL[] {rootUrl.appendPath(path, false)},
+                        "create " + path,
+                        null,
+                        /* makeParents */ true)
+                .getNewRevision();
+    }
+
+    private long copy(final String source, final String destination) throws SVNException {
+        return clientManager
+                .getCopyClient()
+                .doCopy(
+                        new SVNCopySource[] {
+                            new SVNCopySource(
+                                    SVNRevision.HEAD,
+                                    SVNRevision.HEAD,
+                                    rootUrl.appendPath(source, false))
+                        },
+                        rootUrl.appendPath(destination, false),
+                        /* isMove */ false,
+                        /* makeParents */ true,
+                        /* failWhenDstExists */ true,
+                        "copy " + source + " to " + destination,
+                        null)
+                .getNewRevision();
+    }
+}
@@ -5,6 +5,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.indeed.proctor.common.model.TestDefinition;
 import com.indeed.proctor.common.model.TestMatrixDefinition;
 import com.indeed.proctor.common.model.TestMatrixVersion;
@@ -25,13 +26,13 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A decorator class for ProctorStore. This class caches result of read methods and invalidates
@@ -42,8 +43,6 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 public class CachingProctorStore implements ProctorStore {
     private static final Logger LOGGER = LogManager.getLogger(CachingProctorStore.class);
     private static final long REFRESH_RATE_IN_SECOND = 15;
-    private static final long READ_TIMEOUT_IN_SECOND = 30;
-    private static final long WRITE_TIMEOUT_IN_SECOND = 180;
 
     /** ProctorStore delegate. We assume all the methods of delegate is thread-safe. */
     private final ProctorStore delegate;
@@ -261,19 +260,21 @@ public class CachingProctorStore implements ProctorStore {
      * This class provides thread-safe read/write operations to the cached data including the latest
      * version, revision histories of all ProTest, maximum 3 versions of test Matrix and maximum
      * 5000 versions of test definitions.
+     *
+     * <p>The latest version and histories are held by an immutable snapshot, which is built without
+     * holding a lock and swapped atomically, so reads never wait for a refresh. Data of a revision
+     * is loaded from the delegate only once, concurrent readers of the same revision wait for it.
      */
     class CacheHolder {
-        private final ReentrantReadWriteLock readWriteLock = new ReentrantReadWriteLock();
-        private final Lock readLock = readWriteLock.readLock();
-        private final Lock writeLock = readWriteLock.writeLock();
+        /** serializes refreshes, readers use the current snapshot */
+        private final Object refreshLock = new Object();
 
-        private TestMatrixVersion cachedLatestTestMatrixVersion;
-        private Map<String, List<Revision>> historyCache;
+        private volatile Snapshot snapshot;
 
         /* version information won't change so we don't expire */
-        private final Cache<String, TestMatrixVersion> revisionTestMatrixCache =
+        private final Cache<String, Optional<TestMatrixVersion>> revisionTestMatrixCache =
                 CacheBuilder.newBuilder().maximumSize(3).build();
-        private final Cache<TDKey, TestDefinition> revisionTestDefinitionCache =
+        private final Cache<TDKey, Optional<TestDefinition>> revisionTestDefinitionCache =
                 CacheBuilder.newBuilder()
                         .maximumSize(5000) // 5000 * (the size of test definition) ~ 50 MB
                         .build();
@@ -296,76 +297,42 @@ public class CachingProctorStore implements ProctorStore {
                 };
 
         @Nonnull
-        public Map<String, List<Revision>> getCachedHistory() throws StoreException {
-            return synchronizedCacheRead(
-                    new Callable<Map<String, List<Revision>>>() {
-                        @Override
-                        public Map<String, List<Revision>> call() {
-                            return historyCache;
-                        }
-                    });
+        public Map<String, List<Revision>> getCachedHistory() {
+            return snapshot.historyCache;
         }
 
         @Nonnull
-        public String getCachedLatestVersion() throws StoreException {
-            return synchronizedCacheRead(
-                    new Callable<String>() {
-                        @Override
-                        public String call() {
-                            return cachedLatestTestMatrixVersion.getVersion();
-                        }
-                    });
+        public String getCachedLatestVersion() {
+            return snapshot.latestTestMatrixVersion.getVersion();
         }
 
         public TestMatrixVersion getCachedTestMatrix(final String fetchRevision)
                 throws StoreException {
-            return synchronizedCacheRead(
-                    new Callable<TestMatrixVersion>() {
-                        @Override
-                        public TestMatrixVersion call() throws StoreException {
-                            TestMatrixVersion testMatrix =
-                                    revisionTestMatrixCache.getIfPresent(fetchRevision);
-                            if (testMatrix == null) {
-                                LOGGER.debug("Cache miss for fetch revision: " + fetchRevision);
-                                testMatrix = delegate.getTestMatrix(fetchRevision);
-                                revisionTestMatrixCache.put(fetchRevision, testMatrix);
-                            }
-                            return testMatrix;
-                        }
+            return load(
+                    revisionTestMatrixCache,
+                    fetchRevision,
+                    () -> {
+                        LOGGER.debug("Cache miss for fetch revision: " + fetchRevision);
+                        return delegate.getTestMatrix(fetchRevision);
                     });
         }
 
-        public TestMatrixVersion getCachedCurrentTestMatrix() throws StoreException {
-            return synchronizedCacheRead(
-                    new Callable<TestMatrixVersion>() {
-                        @Override
-                        public TestMatrixVersion call() throws StoreException {
-                            return cachedLatestTestMatrixVersion;
-                        }
-                    });
+        public TestMatrixVersion getCachedCurrentTestMatrix() {
+            return snapshot.latestTestMatrixVersion;
         }
 
         public TestDefinition getCachedTestDefinition(
                 final String testName, final String fetchRevision) throws StoreException {
-            return synchronizedCacheRead(
-                    new Callable<TestDefinition>() {
-                        @Override
-                        public TestDefinition call() throws Exception {
-                            final TDKey key = new TDKey(testName, fetchRevision);
-                            TestDefinition testDefinition =
-                                    revisionTestDefinitionCache.getIfPresent(key);
-                            if (testDefinition == null) {
-                                LOGGER.debug(
-                                        "Cache miss for test definition : name="
-                                                + testName
-                                                + " revision="
-                                                + fetchRevision);
-                                testDefinition =
-                                        delegate.getTestDefinition(testName, fetchRevision);
-                                revisionTestDefinitionCache.put(key, testDefinition);
-                            }
-                            return testDefinition;
-                        }
+            return load(
+                    revisionTestDefinitionCache,
+                    new TDKey(testName, fetchRevision),
+                    () -> {
+                        LOGGER.debug(
+                                "Cache miss for test definition : name="
+                                        + testName
+                                        + " revision="
+                                        + fetchRevision);
+                        return delegate.getTestDefinition(testName, fetchRevision);
                     });
         }
 
@@ -382,7 +349,7 @@ public class CachingProctorStore implements ProctorStore {
         public void refreshAll() throws StoreException {
             delegate.refresh();
             if (hasNewVersion()) {
-                lockAndRefreshCache();
+                refreshCache();
             } else {
                 LOGGER.debug(
                         String.format(
@@ -392,27 +359,21 @@ public class CachingProctorStore implements ProctorStore {
         }
 
         /**
-         * This method refreshes cache data. Other read/write operations are blocked
+         * This method refreshes cache data. Other refreshes are blocked, read operations keep
+         * using the previous snapshot until the new one is built.
          *
          * @throws StoreException
          */
-        private void lockAndRefreshCache() throws StoreException {
+        private void refreshCache() throws StoreException {
             LOGGER.debug(String.format("[%s] Refreshing cache data started", delegate.getName()));
-            synchronizedCacheWrite(
-                    new Callable<Void>() {
-                        @Override
-                        public Void call() throws StoreException {
-                            final TestMatrixVersion currentTestMatrix =
-                                    delegate.getCurrentTestMatrix();
-                            final Revision revision = delegate.getMatrixHistory(0, 1).get(0);
-                            final Map<String, List<Revision>> allHistories =
-                                    delegate.getAllHistories();
-                            revisionTestMatrixCache.put(revision.getRevision(), currentTestMatrix);
-                            cachedLatestTestMatrixVersion = currentTestMatrix;
-                            historyCache = allHistories;
-                            return null;
-                        }
-                    });
+            synchronized (refreshLock) {
+                final TestMatrixVersion currentTestMatrix = delegate.getCurrentTestMatrix();
+                final Revision revision = delegate.getMatrixHistory(0, 1).get(0);
+                final Map<String, List<Revision>> allHistories = delegate.getAllHistories();
+                revisionTestMatrixCache.put(
+                        revision.getRevision(), Optional.ofNullable(currentTestMatrix));
+                snapshot = new Snapshot(currentTestMatrix, allHistories);
+            }
             LOGGER.debug(String.format("[%s] Refreshing cache data finished", delegate.getName()));
         }
 
@@ -425,7 +386,7 @@ public class CachingProctorStore implements ProctorStore {
         public void start() throws StoreException {
             LOGGER.info(
                     String.format("[%s] Starting Caching for ProctorStore ", delegate.getName()));
-            lockAndRefreshCache();
+            refreshCache();
             scheduledFuture =
                     scheduledExecutorService.scheduleWithFixedDelay(
                             refreshCacheTask,
@@ -435,8 +396,8 @@ public class CachingProctorStore implements ProctorStore {
         }
 
         /**
-         * This method refreshes cache at once. Cache is invalidated until the method completes.
-         * Read operations are blocked in this method.
+         * This method refreshes cache at once. Read operations use the previous data until the
+         * method completes.
          */
         public void startRefreshCacheTask() {
             LOGGER.info(
@@ -448,7 +409,7 @@ public class CachingProctorStore implements ProctorStore {
              */
             scheduledFuture.cancel(false);
             try {
-                lockAndRefreshCache();
+                refreshCache();
             } catch (final StoreException e) {
                 LOGGER.error("failed to update the cache");
             }
@@ -462,62 +423,17 @@ public class CachingProctorStore implements ProctorStore {
         }
 
         /**
-         * This method provides an interface to perform thread-safe <b>read</b> operation. It only
-         * blocks other write operations.
-         *
-         * @param callable
-         * @param <T>
-         * @return
-         * @throws StoreException
-         */
-        private <T> T synchronizedCacheRead(final Callable<T> callable) throws StoreException {
-            try {
-                if (readLock.tryLock(READ_TIMEOUT_IN_SECOND, TimeUnit.SECONDS)) {
-                    try {
-                        return callable.call();
-                    } catch (final Exception e) {
-                        throw new StoreException("Failed to perform read operation to cache. ", e);
-                    } finally {
-                        readLock.unlock();
-                    }
-                } else {
-                    throw new StoreException(
-                            "Failed to acquire the lock. Timeout after " + READ_TIMEOUT_IN_SECOND);
-                }
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new StoreException("Read operation to cache was interrupted", e);
-            }
-        }
-
-        /**
-         * This method provides an interface to perform thread-safe <b>write</b> operation. It
-         * blocks other read/write operations.
-         *
-         * @param callable
-         * @param <T>
-         * @return
-         * @throws StoreException
+         * Loads a value from the delegate if it's not cached. Concurrent loads of the same key wait
+         * for a single load, loads of other keys and other reads are not blocked.
          */
-        private <T> T synchronizedCacheWrite(final Callable<T> callable) throws StoreException {
+        private <K, V> V load(
+                final Cache<K, Optional<V>> cache, final K key, final Callable<V> loader)
+                throws StoreException {
             try {
-                if (writeLock.tryLock(WRITE_TIMEOUT_IN_SECOND, TimeUnit.SECONDS)) {
-                    try {
-                        return callable.call();
-                    } catch (final Exception e) {
-                        throw new StoreException.TestUpdateException(
-                                "Failed to perform write operation to cache. ", e);
-                    } finally {
-                        writeLock.unlock();
-                    }
-                } else {
-                    throw new StoreException.TestUpdateException(
-                            "Failed to acquire the lock. Timeout after " + WRITE_TIMEOUT_IN_SECOND);
-                }
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new StoreException.TestUpdateException(
-                        "Write operation to cache was interrupted", e);
+                return cache.get(key, () -> Optional.ofNullable(loader.call())).orElse(null);
+            } catch (final ExecutionException | UncheckedExecutionException e) {
+                throw new StoreException(
+                        "Failed to perform read operation to cache. ", e.getCause());
             }
         }
 
@@ -548,5 +464,17 @@ public class CachingProctorStore implements ProctorStore {
                 return Objects.hash(test, fetchRevision);
             }
         }
+
+        private class Snapshot {
+            private final TestMatrixVersion latestTestMatrixVersion;
+            private final Map<String, List<Revision>> historyCache;
+
+            private Snapshot(
+                    final TestMatrixVersion latestTestMatrixVersion,
+                    final Map<String, List<Revision>> historyCache) {
+                this.latestTestMatrixVersion = latestTestMatrixVersion;
+                this.historyCache = historyCache;
+            }
+        }
     }
 }
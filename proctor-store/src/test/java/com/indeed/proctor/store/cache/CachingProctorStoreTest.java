@@ -1,16 +1,22 @@
 package com.indeed.proctor.store.cache;
 
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.indeed.proctor.common.model.TestDefinition;
 import com.indeed.proctor.store.ChangeMetadata;
 import com.indeed.proctor.store.ProctorStore;
+import com.indeed.proctor.store.Revision;
 import com.indeed.proctor.store.StoreException;
 import com.indeed.proctor.store.StoreException.TestUpdateException;
 import com.indeed.proctor.store.utils.test.InMemoryProctorStore;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.indeed.proctor.store.utils.test.InMemoryProctorStoreTest.createDummyTestDefinition;
 import static java.util.Collections.emptyMap;
@@ -297,6 +303,70 @@ public class CachingProctorStoreTest {
         assertNotNull(testee.getTestDefinition("tst1", initialRevision));
     }
 
+    @Test
+    public void testReadDuringRefresh() throws StoreException, InterruptedException {
+        final AtomicBoolean blockRefresh = new AtomicBoolean(false);
+        final CountDownLatch refreshing = new CountDownLatch(1);
+        final CountDownLatch finishRefresh = new CountDownLatch(1);
+        final ProctorStore blockingDelegate =
+                new InMemoryProctorStore() {
+                    @Override
+                    public Map<String, List<Revision>> getAllHistories() {
+                        if (blockRefresh.get()) {
+                            refreshing.countDown();
+                            Uninterruptibles.awaitUninterruptibly(finishRefresh);
+                        }
+                        return super.getAllHistories();
+                    }
+                };
+        blockingDelegate.addTestDefinition(
+                ChangeMetadata.builder()
+                        .setUsernameAndAuthor("Mike")
+                        .setPassword("pwd")
+                        .setComment("commit tst1")
+                        .build(),
+                "tst1",
+                createDummyTestDefinition("1", "tst1"),
+                emptyMap());
+        final CachingProctorStore store = new CachingProctorStore(blockingDelegate);
+        store.getRefreshTaskFuture().cancel(false);
+        final String initialRevision = store.getLatestVersion();
+
+        blockingDelegate.addTestDefinition(
+                ChangeMetadata.builder()
+                        .setUsernameAndAuthor("William")
+                        .setPassword("pwd")
+                        .setComment("commit tst2")
+                        .build(),
+                "tst2",
+                createDummyTestDefinition("2", "tst2"),
+                emptyMap());
+        blockRefresh.set(true);
+        final Thread thread =
+                new Thread(
+                        () -> {
+                            try {
+                                store.refresh();
+                            } catch (final StoreException e) {
+                                fail();
+                            }
+                        });
+        thread.setUncaughtExceptionHandler(ASSERTION_FAILURE_HANDLER);
+        thread.start();
+        refreshing.await();
+
+        // reads are served from the previous data without waiting for the refresh
+        assertEquals(initialRevision, store.getLatestVersion());
+        assertEquals(1, store.getAllHistories().size());
+        assertNull(store.getCurrentTestDefinition("tst2"));
+
+        finishRefresh.countDown();
+        thread.join();
+        assertEquals(blockingDelegate.getLatestVersion(), store.getLatestVersion());
+        assertEquals(2, store.getAllHistories().size());
+        assertNotNull(store.getCurrentTestDefinition("tst2"));
+    }
+
     /*
      * Note this is not a useful way to test multithreading, and in this class it
      * is also used single-threaded for no good reason.
@@ -3,11 +3,14 @@ package com.indeed.proctor.webapp;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.indeed.proctor.common.ProctorSpecification;
 import com.indeed.proctor.common.ProctorUtils;
@@ -28,6 +31,9 @@ import com.indeed.proctor.webapp.util.threads.LogOnUncaughtExceptionHandler;
 import com.indeed.util.core.DataLoadingTimerTask;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpGet;
@@ -39,6 +45,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import javax.annotation.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -49,6 +56,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -65,13 +73,24 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
     private static final ObjectMapper OBJECT_MAPPER = Serializers.strict();
 
     @Autowired(required = false)
-    private final ProctorClientSource clientSource = new DefaultClientSource();
+    private final ProctorClientSource clientSource;
+
+    private static final List<Environment> ENVIRONMENTS =
+            ImmutableList.of(Environment.WORKING, Environment.QA, Environment.PRODUCTION);
 
     private final ExecutorService httpExecutor;
 
-    private final Map<Environment, ImmutableMap<AppVersion, RemoteSpecificationResult>>
+    /** refreshes environments concurrently, each waiting for its fetches in httpExecutor */
+    private final ExecutorService environmentExecutor;
+
+    /** updated per app version while refreshing, so results are visible as soon as fetched */
+    private final Map<Environment, Map<AppVersion, RemoteSpecificationResult>>
             applicationMapByEnvironment = Maps.newConcurrentMap();
 
+    /** last fetched specifications, to not parse and verify unchanged specifications again */
+    private final Map<Environment, Map<AppVersion, FetchedSpecification>> fetchedByEnvironment =
+            Maps.newConcurrentMap();
+
     private final Map<Environment, ProctorReader> proctorReaderMap;
 
     private final HttpClient httpClient;
@@ -82,18 +101,27 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
             final ProctorReader trunk,
             final ProctorReader qa,
             final ProctorReader production) {
+        this(
+                createHttpClient(httpTimeoutMillis),
+                new DefaultClientSource(),
+                executorThreads,
+                trunk,
+                qa,
+                production);
+    }
+
+    @VisibleForTesting
+    RemoteProctorSpecificationSource(
+            final HttpClient httpClient,
+            final ProctorClientSource clientSource,
+            final int executorThreads,
+            final ProctorReader trunk,
+            final ProctorReader qa,
+            final ProctorReader production) {
         super(RemoteProctorSpecificationSource.class.getSimpleName());
-        Preconditions.checkArgument(httpTimeoutMillis > 0, "httpTimeoutMillis > 0");
 
-        this.httpClient =
-                HttpClientBuilder.create()
-                        .setDefaultRequestConfig(
-                                RequestConfig.custom()
-                                        .setConnectTimeout(httpTimeoutMillis)
-                                        .setSocketTimeout(httpTimeoutMillis)
-                                        .build())
-                        .disableCookieManagement() // to make it stateless
-                        .build();
+        this.httpClient = httpClient;
+        this.clientSource = clientSource;
 
         final ThreadFactory threadFactory =
                 new ThreadFactoryBuilder()
@@ -101,6 +129,13 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
                         .setUncaughtExceptionHandler(new LogOnUncaughtExceptionHandler())
                         .build();
         this.httpExecutor = Executors.newFixedThreadPool(executorThreads, threadFactory);
+        this.environmentExecutor =
+                Executors.newFixedThreadPool(
+                        ENVIRONMENTS.size(),
+                        new ThreadFactoryBuilder()
+                                .setNameFormat("proctor-specification-refresh-Thread-%d")
+                                .setUncaughtExceptionHandler(new LogOnUncaughtExceptionHandler())
+                                .build());
         this.proctorReaderMap =
                 ImmutableMap.of(
                         Environment.WORKING, trunk,
@@ -108,6 +143,18 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
                         Environment.PRODUCTION, production);
     }
 
+    private static HttpClient createHttpClient(final int httpTimeoutMillis) {
+        Preconditions.checkArgument(httpTimeoutMillis > 0, "httpTimeoutMillis > 0");
+        return HttpClientBuilder.create()
+                .setDefaultRequestConfig(
+                        RequestConfig.custom()
+                                .setConnectTimeout(httpTimeoutMillis)
+                                .setSocketTimeout(httpTimeoutMillis)
+                                .build())
+                .disableCookieManagement() // to make it stateless
+                .build();
+    }
+
     @Override
     public RemoteSpecificationResult getRemoteResult(
             final Environment environment, final AppVersion version) {
@@ -120,19 +167,20 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
     @Override
     public Map<AppVersion, RemoteSpecificationResult> loadAllSpecifications(
             final Environment environment) {
-        final ImmutableMap<AppVersion, RemoteSpecificationResult> applicationsMap =
+        final Map<AppVersion, RemoteSpecificationResult> applicationsMap =
                 applicationMapByEnvironment.get(environment);
         if (applicationsMap == null) {
             return Collections.emptyMap();
         }
 
-        return applicationsMap;
+        // snapshot, as the map is updated while refreshing
+        return ImmutableMap.copyOf(applicationsMap);
     }
 
     @Override
     public Map<AppVersion, ProctorSpecifications> loadAllSuccessfulSpecifications(
             final Environment environment) {
-        final ImmutableMap<AppVersion, RemoteSpecificationResult> applicationsMap =
+        final Map<AppVersion, RemoteSpecificationResult> applicationsMap =
                 applicationMapByEnvironment.get(environment);
         if (applicationsMap == null) {
             return Collections.emptyMap();
@@ -204,11 +252,26 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
     }
 
     private boolean refreshInternalCache() {
-        // TODO (parker) 9/6/12 - run all of these in parallel instead of in series
-        final boolean devSuccess = refreshInternalCache(Environment.WORKING);
-        final boolean qaSuccess = refreshInternalCache(Environment.QA);
-        final boolean productionSuccess = refreshInternalCache(Environment.PRODUCTION);
-        return devSuccess && qaSuccess && productionSuccess;
+        final List<Callable<Boolean>> refreshes =
+                ENVIRONMENTS.stream()
+                        .<Callable<Boolean>>map(
+                                environment -> () -> refreshInternalCache(environment))
+                        .collect(Collectors.toList());
+        boolean success = true;
+        try {
+            for (final Future<Boolean> refresh : environmentExecutor.invokeAll(refreshes)) {
+                try {
+                    success &= refresh.get();
+                } catch (final ExecutionException e) {
+                    LOGGER.error("Unable to refresh specifications", e.getCause());
+                    success = false;
+                }
+            }
+        } catch (final InterruptedException e) {
+            LOGGER.error("Interrupted refreshing specifications", e);
+            return false;
+        }
+        return success;
     }
 
     private boolean refreshInternalCache(final Environment environment) {
@@ -219,8 +282,11 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
 
         final Map<AppVersion, Future<RemoteSpecificationResult>> futures = Maps.newLinkedHashMap();
 
-        final ImmutableMap.Builder<AppVersion, RemoteSpecificationResult> allResults =
-                ImmutableMap.builder();
+        final Map<AppVersion, RemoteSpecificationResult> allResults =
+                applicationMapByEnvironment.computeIfAbsent(
+                        environment, e -> Maps.newConcurrentMap());
+        final Map<AppVersion, FetchedSpecification> fetched =
+                fetchedByEnvironment.computeIfAbsent(environment, e -> Maps.newConcurrentMap());
         final Set<AppVersion> appVersionsToCheck = Sets.newLinkedHashSet();
 
         // Accumulate all clients that have equivalent AppVersion (APPLICATION_COMPARATOR)
@@ -240,7 +306,7 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
             assert !callableClients.isEmpty();
             futures.put(
                     appVersion,
-                    httpExecutor.submit(() -> internalGet(appVersion, callableClients)));
+                    httpExecutor.submit(() -> internalGet(appVersion, callableClients, fetched)));
         }
         futures.forEach(
                 (version, future) -> {
@@ -251,14 +317,18 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
                             appVersionsToCheck.remove(result.getVersion());
                         }
                     } catch (final InterruptedException e) {
+                        allResults.remove(version);
                         LOGGER.error("Interrupted getting " + version, e);
                     } catch (final ExecutionException e) {
+                        allResults.remove(version);
                         final Throwable cause = e.getCause();
                         LOGGER.error("Unable to fetch " + version, cause);
                     }
                 });
 
-        applicationMapByEnvironment.put(environment, allResults.build());
+        // forget app versions which are not deployed anymore
+        allResults.keySet().retainAll(apps.keySet());
+        fetched.keySet().retainAll(apps.keySet());
 
         // TODO (parker) 9/6/12 - Fail if we do not have 1 specification for each
         // <Application>.<Version>
@@ -274,6 +344,7 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
     }
 
     public void shutdown() {
+        environmentExecutor.shutdownNow();
         httpExecutor.shutdownNow();
     }
 
@@ -283,13 +354,18 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
      * for spec.
      */
     private RemoteSpecificationResult internalGet(
-            final AppVersion version, final List<ProctorClientApplication> clients) {
+            final AppVersion version,
+            final List<ProctorClientApplication> clients,
+            final Map<AppVersion, FetchedSpecification> fetched) {
         // ImmutableMap does not handle duplicate keys - use a HashMap for building instead
         final Map<ProctorClientApplication, Throwable> failures = new HashMap<>();
+        final FetchedSpecification previous = fetched.get(version);
         for (final ProctorClientApplication client : clients) {
             try {
-                final ProctorSpecifications specifications = fetchSpecification(client);
-                return RemoteSpecificationResult.success(version, client, specifications);
+                final FetchedSpecification specification = fetchSpecification(client, previous);
+                fetched.put(version, specification);
+                return RemoteSpecificationResult.success(
+                        version, client, specification.specifications);
             } catch (final IOException e) {
                 failures.put(client, e);
             }
@@ -315,15 +391,42 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
      * <p>* /private/v?ns=JsonProctorLoaderFactory by
      * com.indeed.util.varexport.servlet.ViewExportedVariablesServlet The variable is exposed in
      * com.indeed.proctor.common.JsonProctorLoaderFactory
+     *
+     * <p>The exported variables are requested conditionally with the ETag of the previous response
+     * and hashed, so that the previous specifications are reused without parsing or requesting the
+     * other endpoint while they are not modified. Reusing the same instance also lets consumers
+     * cache their verification of the specifications.
      */
-    private ProctorSpecifications fetchSpecification(final ProctorClientApplication client)
+    private FetchedSpecification fetchSpecification(
+            final ProctorClientApplication client, @Nullable final FetchedSpecification previous)
             throws IOException {
         // This URL is where we expose variables by ViewExportedVariablesServlet
         final String varExportUrl =
                 client.getBaseApplicationUrl() + "/private/v?ns=JsonProctorLoaderFactory";
 
+        final HttpContent varExport =
+                fetchContentConditionally(varExportUrl, (previous == null) ? null : previous.etag);
+        if (varExport.content == null) {
+            if (previous == null) {
+                throw new IOException("Unexpected response without content from " + varExportUrl);
+            }
+            return previous;
+        }
+        final HashCode contentHash =
+                Hashing.murmur3_128().hashString(varExport.content, StandardCharsets.UTF_8);
+        if ((previous != null) && previous.contentHash.equals(contentHash)) {
+            return new FetchedSpecification(varExport.etag, contentHash, previous.specifications);
+        }
+
+        return new FetchedSpecification(
+                varExport.etag, contentHash, parseSpecification(varExport.content, client));
+    }
+
+    private ProctorSpecifications parseSpecification(
+            final String varExportContent, final ProctorClientApplication client)
+            throws IOException {
         final ProctorSpecifications specFromVarExport =
-                parseExportedVariables(fetchContentFromUrl(varExportUrl), client);
+                parseExportedVariables(varExportContent, client);
 
         // Use this spec if the var export contains multiple specifications
         // because the other legacy endpoint contains only single.
@@ -356,6 +459,28 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
                 });
     }
 
+    /** @return content of the url, or null content if not modified since the given ETag */
+    private HttpContent fetchContentConditionally(
+            final String urlString, @Nullable final String etag) throws IOException {
+        final HttpGet httpGet = new HttpGet(urlString);
+        if (etag != null) {
+            httpGet.setHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return this.httpClient.execute(
+                httpGet,
+                r -> {
+                    if (r.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+                        return new HttpContent(null, etag);
+                    }
+                    final Header etagHeader = r.getFirstHeader(HttpHeaders.ETAG);
+                    try (InputStream inputStream = r.getEntity().getContent()) {
+                        return new HttpContent(
+                                IOUtils.toString(inputStream, "UTF-8"),
+                                (etagHeader == null) ? null : etagHeader.getValue());
+                    }
+                });
+    }
+
     @Nullable
     private ConsumableTestDefinition getCurrentConsumableTestDefinition(
             final Environment environment, final String testName) {
@@ -448,4 +573,30 @@ public class RemoteProctorSpecificationSource extends DataLoadingTimerTask
         return new ProctorSpecifications(
                 Collections.singleton(specificationResult.getSpecification()));
     }
+
+    private static class HttpContent {
+        @Nullable private final String content;
+        @Nullable private final String etag;
+
+        private HttpContent(@Nullable final String content, @Nullable final String etag) {
+            this.content = content;
+            this.etag = etag;
+        }
+    }
+
+    /** specifications of an app version with the validators of the content they're parsed from */
+    private static class FetchedSpecification {
+        @Nullable private final String etag;
+        private final HashCode contentHash;
+        private final ProctorSpecifications specifications;
+
+        private FetchedSpecification(
+                @Nullable final String etag,
+                final HashCode contentHash,
+                final ProctorSpecifications specifications) {
+            this.etag = etag;
+            this.contentHash = contentHash;
+            this.specifications = specifications;
+        }
+    }
 }
@@ -1,37 +1,197 @@
 package com.indeed.proctor.webapp;
 
+import com.google.common.collect.ImmutableList;
+import com.indeed.proctor.store.ProctorReader;
+import com.indeed.proctor.webapp.db.Environment;
+import com.indeed.proctor.webapp.model.AppVersion;
 import com.indeed.proctor.webapp.model.ProctorClientApplication;
 import com.indeed.proctor.webapp.model.ProctorSpecifications;
 import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 /** @author yiqing */
 public class RemoteProctorSpecificationSourceTest {
+    private static final ProctorClientApplication CLIENT =
+            new ProctorClientApplication(
+                    "testapp", "http://example.com", "http://example.com", new Date(), "version");
+    private static final AppVersion APP_VERSION = new AppVersion("testapp", "version");
+    private static final String VAR_EXPORT_PATH = "/private/v";
+
+    private final List<HttpUriRequest> requests = new ArrayList<>();
+    private String exportedVariables;
+    // ETag of the exported variables, null if the application does not send one
+    private String etag;
+
+    private ProctorClientSource clientSource;
+    private RemoteProctorSpecificationSource source;
+
+    @Before
+    public void setUp() throws IOException {
+        exportedVariables = readExportedVariables();
+        etag = "\"v1\"";
+
+        final HttpClient httpClient = mock(HttpClient.class);
+        when(httpClient.execute(any(HttpUriRequest.class), any(ResponseHandler.class)))
+                .thenAnswer(
+                        invocation -> {
+                            final HttpUriRequest request = invocation.getArgument(0);
+                            final ResponseHandler<?> handler = invocation.getArgument(1);
+                            requests.add(request);
+                            return handler.handleResponse(respond(request));
+                        });
+        clientSource = mock(ProctorClientSource.class);
+        when(clientSource.loadClients(Environment.WORKING))
+                .thenReturn(ImmutableList.of(CLIENT));
+
+        source =
+                new RemoteProctorSpecificationSource(
+                        httpClient,
+                        clientSource,
+                        1,
+                        mock(ProctorReader.class),
+                        mock(ProctorReader.class),
+                        mock(ProctorReader.class));
+    }
+
+    @After
+    public void tearDown() {
+        source.shutdown();
+    }
+
     @Test
     public void testExportedVariableParser() throws Exception {
+        final ProctorSpecifications result =
+                RemoteProctorSpecificationSource.parseExportedVariables(
+                        readExportedVariables(), CLIENT);
+
+        assertThat(result.asSet())
+                .hasSize(1)
+                .first()
+                .satisfies(s -> assertThat(s.getTests()).containsKey("my_tst"));
+    }
+
+    @Test
+    public void testNotModifiedSpecificationIsReused() {
+        assertThat(source.load()).isTrue();
+        final ProctorSpecifications specifications = getSpecifications();
+        assertThat(specifications.asSet())
+                .first()
+                .satisfies(s -> assertThat(s.getTests()).containsKey("my_tst"));
+        // single specification, so the specification servlet is tried first
+        assertThat(requests).hasSize(2);
+        assertThat(requests.get(0).getFirstHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+
+        requests.clear();
+        assertThat(source.load()).isTrue();
+
+        assertThat(getSpecifications()).isSameAs(specifications);
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).getFirstHeader(HttpHeaders.IF_NONE_MATCH).getValue())
+                .isEqualTo(etag);
+    }
+
+    @Test
+    public void testSameContentIsNotParsed() {
+        etag = null;
+        assertThat(source.load()).isTrue();
+        final ProctorSpecifications specifications = getSpecifications();
+
+        requests.clear();
+        assertThat(source.load()).isTrue();
+
+        assertThat(getSpecifications()).isSameAs(specifications);
+        // only the exported variables, not the specification servlet again
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).getURI().getPath()).isEqualTo(VAR_EXPORT_PATH);
+    }
+
+    @Test
+    public void testChangedContentIsParsed() {
+        assertThat(source.load()).isTrue();
+        final ProctorSpecifications specifications = getSpecifications();
+
+        exportedVariables = exportedVariables.replace("my_tst", "new_tst");
+        etag = "\"v2\"";
+        assertThat(source.load()).isTrue();
+
+        assertThat(getSpecifications()).isNotSameAs(specifications);
+        assertThat(getSpecifications().asSet())
+                .first()
+                .satisfies(s -> assertThat(s.getTests()).containsOnlyKeys("new_tst"));
+    }
+
+    @Test
+    public void testRemovedAppVersionIsDropped() {
+        assertThat(source.load()).isTrue();
+        assertThat(source.loadAllSpecifications(Environment.WORKING))
+                .containsOnlyKeys(APP_VERSION);
+
+        when(clientSource.loadClients(Environment.WORKING)).thenReturn(Collections.emptyList());
+        assertThat(source.load()).isTrue();
+        assertThat(source.loadAllSpecifications(Environment.WORKING)).isEmpty();
+
+        // fetched again without the validators of the dropped app version
+        when(clientSource.loadClients(Environment.WORKING))
+                .thenReturn(ImmutableList.of(CLIENT));
+        requests.clear();
+        assertThat(source.load()).isTrue();
+        assertThat(source.loadAllSpecifications(Environment.WORKING))
+                .containsOnlyKeys(APP_VERSION);
+        assertThat(requests.get(0).getFirstHeader(HttpHeaders.IF_NONE_MATCH)).isNull();
+    }
+
+    private ProctorSpecifications getSpecifications() {
+        return source.getRemoteResult(Environment.WORKING, APP_VERSION).getSpecifications();
+    }
+
+    /** application exposing the exported variables, but not the specification servlet */
+    private BasicHttpResponse respond(final HttpUriRequest request) throws IOException {
+        if (!VAR_EXPORT_PATH.equals(request.getURI().getPath())) {
+            throw new IOException("Not found: " + request.getURI());
+        }
+        final Header ifNoneMatch = request.getFirstHeader(HttpHeaders.IF_NONE_MATCH);
+        if ((etag != null) && (ifNoneMatch != null) && etag.equals(ifNoneMatch.getValue())) {
+            return new BasicHttpResponse(
+                    HttpVersion.HTTP_1_1, HttpStatus.SC_NOT_MODIFIED, "Not Modified");
+        }
+        final BasicHttpResponse response =
+                new BasicHttpResponse(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK");
+        response.setEntity(new StringEntity(exportedVariables, ContentType.TEXT_PLAIN));
+        if (etag != null) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        return response;
+    }
+
+    private static String readExportedVariables() throws IOException {
         try (final InputStream exportedVariables =
                 RemoteProctorSpecificationSourceTest.class.getResourceAsStream(
                         "exportedVariables.txt")) {
-            final String content = IOUtils.toString(exportedVariables);
-            final ProctorClientApplication client =
-                    new ProctorClientApplication(
-                            "testapp",
-                            "http://example.com",
-                            "http://example.com",
-                            new Date(),
-                            "version");
-            final ProctorSpecifications result =
-                    RemoteProctorSpecificationSource.parseExportedVariables(content, client);
-
-            assertThat(result.asSet())
-                    .hasSize(1)
-                    .first()
-                    .satisfies(s -> assertThat(s.getTests()).containsKey("my_tst"));
+            return IOUtils.toString(exportedVariables);
         }
     }
 }
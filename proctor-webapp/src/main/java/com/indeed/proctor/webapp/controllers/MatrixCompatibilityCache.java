@@ -0,0 +1,86 @@
+package com.indeed.proctor.webapp.controllers;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.indeed.proctor.common.ProctorUtils;
+import com.indeed.proctor.common.model.TestMatrixArtifact;
+import com.indeed.proctor.common.model.TestMatrixVersion;
+import com.indeed.proctor.webapp.controllers.ProctorController.CompatibleSpecificationResult;
+import com.indeed.proctor.webapp.db.Environment;
+import com.indeed.proctor.webapp.model.AppVersion;
+import com.indeed.proctor.webapp.model.ProctorSpecifications;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Map;
+
+/**
+ * Caches consumable test matrices and the compatibility of client specifications with them, so
+ * that specifications are only verified again when a matrix version or a client specification
+ * changed.
+ *
+ * <p>Specifications are weakly referenced and compared by identity, so results are dropped once the
+ * specification source replaces the specification of a client. For each specification, only the
+ * result for the latest seen matrix version of each environment is kept.
+ */
+final class MatrixCompatibilityCache {
+    private final Map<Environment, Versioned<TestMatrixArtifact>> artifacts =
+            Maps.newConcurrentMap();
+
+    private final Cache<
+                    ProctorSpecifications,
+                    Map<Environment, Versioned<CompatibleSpecificationResult>>>
+            results = CacheBuilder.newBuilder().weakKeys().build();
+
+    /** @return consumable artifact of the matrix, converted once per matrix version */
+    TestMatrixArtifact getArtifact(
+            @Nonnull final Environment environment, @Nonnull final TestMatrixVersion matrix) {
+        final String version = matrix.getVersion();
+        final Versioned<TestMatrixArtifact> cached = artifacts.get(environment);
+        if (cached != null && cached.isVersion(version)) {
+            return cached.value;
+        }
+        final TestMatrixArtifact artifact = ProctorUtils.convertToConsumableArtifact(matrix);
+        artifacts.put(environment, new Versioned<>(version, artifact));
+        return artifact;
+    }
+
+    /** @return compatibility of the specifications with the artifact, verified once per version */
+    CompatibleSpecificationResult getResult(
+            @Nonnull final Environment artifactEnvironment,
+            @Nonnull final TestMatrixArtifact artifact,
+            @Nonnull final AppVersion appVersion,
+            @Nonnull final ProctorSpecifications specifications) {
+        final String version = artifact.getAudit().getVersion();
+        final Map<Environment, Versioned<CompatibleSpecificationResult>> resultByEnvironment =
+                results.asMap().computeIfAbsent(specifications, k -> Maps.newConcurrentMap());
+        final Versioned<CompatibleSpecificationResult> cached =
+                resultByEnvironment.get(artifactEnvironment);
+        if (cached != null
+                && cached.isVersion(version)
+                && cached.value.getAppVersion().equals(appVersion)) {
+            return cached.value;
+        }
+        final CompatibleSpecificationResult result =
+                CompatibleSpecificationResult.fromProctorSpecifications(
+                        artifactEnvironment, appVersion, artifact, specifications);
+        resultByEnvironment.put(artifactEnvironment, new Versioned<>(version, result));
+        return result;
+    }
+
+    private static final class Versioned<T> {
+        @Nullable private final String version;
+        private final T value;
+
+        private Versioned(@Nullable final String version, final T value) {
+            this.version = version;
+            this.value = value;
+        }
+
+        /** unknown versions never match, to not reuse values of unversioned matrices */
+        private boolean isVersion(@Nullable final String otherVersion) {
+            return (version != null) && version.equals(otherVersion);
+        }
+    }
+}
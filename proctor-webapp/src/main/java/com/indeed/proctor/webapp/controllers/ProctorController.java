@@ -54,6 +54,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 
 import static java.util.stream.Collectors.joining;
@@ -67,17 +69,30 @@ public class ProctorController extends AbstractController {
 
     private static final ObjectMapper OBJECT_MAPPER = Serializers.strict();
 
+    /** delay between background updates of the cached compatibility of all clients */
+    private static final long COMPATIBILITY_REFRESH_MINUTES = 1;
+
     private final ProctorSpecificationSource specificationSource;
 
+    private final MatrixCompatibilityCache compatibilityCache = new MatrixCompatibilityCache();
+
     @Autowired
     public ProctorController(
             final WebappConfiguration configuration,
             @Qualifier("trunk") final ProctorStore trunkStore,
             @Qualifier("qa") final ProctorStore qaStore,
             @Qualifier("production") final ProctorStore productionStore,
-            final ProctorSpecificationSource specificationSource) {
+            final ProctorSpecificationSource specificationSource,
+            final ScheduledExecutorService scheduledExecutorService) {
         super(configuration, trunkStore, qaStore, productionStore);
         this.specificationSource = specificationSource;
+        // keep compatibility of new matrix versions and client specifications up to date in the
+        // background, so that the compatibility page rarely needs to verify specifications
+        scheduledExecutorService.scheduleWithFixedDelay(
+                this::refreshCompatibility,
+                COMPATIBILITY_REFRESH_MINUTES,
+                COMPATIBILITY_REFRESH_MINUTES,
+                TimeUnit.MINUTES);
     }
 
     /** TODO: this should be the default screen at / */
@@ -210,13 +225,7 @@ public class ProctorController extends AbstractController {
     // not a @ApiOperation because it produces HTML
     @RequestMapping(value = "/compatibility", method = RequestMethod.GET)
     public String viewMatrixCompatibility(final Model model) {
-        final Map<Environment, CompatibilityRow> compatibilityMap = Maps.newLinkedHashMap();
-
-        populateCompatibilityRow(compatibilityMap, Environment.WORKING);
-        populateCompatibilityRow(compatibilityMap, Environment.QA);
-        populateCompatibilityRow(compatibilityMap, Environment.PRODUCTION);
-
-        model.addAttribute("compatibilityMap", compatibilityMap);
+        model.addAttribute("compatibilityMap", buildCompatibilityMap());
         model.addAttribute(
                 "session",
                 SessionViewModel.builder()
@@ -227,12 +236,30 @@ public class ProctorController extends AbstractController {
         return ProctorView.MATRIX_COMPATIBILITY.getName();
     }
 
+    private Map<Environment, CompatibilityRow> buildCompatibilityMap() {
+        final Map<Environment, CompatibilityRow> compatibilityMap = Maps.newLinkedHashMap();
+
+        populateCompatibilityRow(compatibilityMap, Environment.WORKING);
+        populateCompatibilityRow(compatibilityMap, Environment.QA);
+        populateCompatibilityRow(compatibilityMap, Environment.PRODUCTION);
+        return compatibilityMap;
+    }
+
+    /** verifies and caches compatibility of changed matrices or client specifications */
+    private void refreshCompatibility() {
+        try {
+            buildCompatibilityMap();
+        } catch (final RuntimeException e) {
+            LOGGER.error("Failed to refresh compatibility of clients", e);
+        }
+    }
+
     private void populateCompatibilityRow(
             final Map<Environment, CompatibilityRow> rows, final Environment rowEnv) {
         final CompatibilityRow row = new CompatibilityRow();
         rows.put(rowEnv, row);
         final TestMatrixVersion matrix = getCurrentMatrix(rowEnv);
-        final TestMatrixArtifact artifact = ProctorUtils.convertToConsumableArtifact(matrix);
+        final TestMatrixArtifact artifact = compatibilityCache.getArtifact(rowEnv, matrix);
         populateSingleCompabilityColumn(rowEnv, artifact, row, Environment.WORKING);
         populateSingleCompabilityColumn(rowEnv, artifact, row, Environment.QA);
         populateSingleCompabilityColumn(rowEnv, artifact, row, Environment.PRODUCTION);
@@ -269,10 +296,10 @@ public class ProctorController extends AbstractController {
             final CompatibleSpecificationResult result;
             if (remoteResult.getSpecifications() != null) {
                 result =
-                        CompatibleSpecificationResult.fromProctorSpecifications(
+                        compatibilityCache.getResult(
                                 artifactEnvironment,
-                                version,
                                 artifact,
+                                version,
                                 remoteResult.getSpecifications());
             } else {
                 final String error =
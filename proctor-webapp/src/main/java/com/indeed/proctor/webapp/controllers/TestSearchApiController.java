@@ -2,15 +2,16 @@ package com.indeed.proctor.webapp.controllers;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Splitter;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
 import com.indeed.proctor.common.model.Allocation;
 import com.indeed.proctor.common.model.TestDefinition;
 import com.indeed.proctor.common.model.TestMatrixDefinition;
+import com.indeed.proctor.common.model.TestMatrixVersion;
 import com.indeed.proctor.store.ProctorStore;
-import com.indeed.proctor.store.Revision;
 import com.indeed.proctor.store.StoreException;
+import com.indeed.proctor.webapp.controllers.TestSearchIndex.Field;
 import com.indeed.proctor.webapp.db.Environment;
 import com.indeed.proctor.webapp.model.WebappConfiguration;
 import com.indeed.proctor.webapp.util.TestSearchUtil;
@@ -27,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +38,8 @@ import static java.util.stream.Collectors.toList;
 @Controller
 @RequestMapping(value = {"/proctor/matrix/tests", "/matrix/tests"})
 public class TestSearchApiController extends AbstractController {
+    private final Map<Environment, TestSearchIndex> searchIndexes = Maps.newConcurrentMap();
+
     @Autowired
     public TestSearchApiController(
             final WebappConfiguration configuration,
@@ -47,22 +51,33 @@ public class TestSearchApiController extends AbstractController {
 
     @VisibleForTesting
     enum FilterType {
-        ALL(TestSearchUtil::matchAll),
-        TESTNAME((testName, definition, query) -> TestSearchUtil.matchTestName(testName, query)),
+        ALL(TestSearchUtil::matchAll, EnumSet.allOf(Field.class)),
+        TESTNAME(
+                (testName, definition, query) -> TestSearchUtil.matchTestName(testName, query),
+                EnumSet.of(Field.NAME)),
         DESCRIPTION(
                 ((testName, definition, query) ->
-                        TestSearchUtil.matchDescription(definition, query))),
-        RULE((testName, definition, query) -> TestSearchUtil.matchRule(definition, query)),
-        BUCKET((testName, definition, query) -> TestSearchUtil.matchBucket(definition, query)),
+                        TestSearchUtil.matchDescription(definition, query)),
+                EnumSet.of(Field.DESCRIPTION)),
+        RULE(
+                (testName, definition, query) -> TestSearchUtil.matchRule(definition, query),
+                EnumSet.of(Field.RULE)),
+        BUCKET(
+                (testName, definition, query) -> TestSearchUtil.matchBucket(definition, query),
+                EnumSet.of(Field.BUCKET)),
         BUCKETDESCRIPTION(
                 (testName, definition, query) ->
-                        TestSearchUtil.matchBucketDescription(definition, query)),
+                        TestSearchUtil.matchBucketDescription(definition, query),
+                EnumSet.of(Field.BUCKET_DESCRIPTION)),
         ;
 
         private final TestFilter testFilter;
+        /** indexed fields containing all texts the filter matches */
+        private final Set<Field> fields;
 
-        FilterType(final TestFilter testFilter) {
+        FilterType(final TestFilter testFilter, final Set<Field> fields) {
             this.testFilter = testFilter;
+            this.fields = fields;
         }
 
         private interface TestFilter {
@@ -186,21 +201,24 @@ public class TestSearchApiController extends AbstractController {
         }
     }
 
-    private static List<ProctorTest> toProctorTests(
-            final Map<String, TestDefinition> matrix, final ProctorStore store)
-            throws StoreException {
-        final List<ProctorTest> proctorTests = Lists.newArrayListWithExpectedSize(matrix.size());
-        for (final Map.Entry<String, TestDefinition> e : matrix.entrySet()) {
-            final List<Revision> revisions = store.getHistory(e.getKey(), 0, 1);
-            final long updatedTime;
-            if (revisions.isEmpty()) {
-                updatedTime = 0;
-            } else {
-                updatedTime = revisions.get(0).getDate().getTime();
-            }
-            proctorTests.add(new ProctorTest(e.getKey(), e.getValue(), updatedTime));
+    /** @return index of the current matrix, updated when the store has a new matrix version */
+    private TestSearchIndex getSearchIndex(final Environment environment) throws StoreException {
+        final TestMatrixVersion matrix = getCurrentMatrix(environment);
+        final TestSearchIndex current = searchIndexes.get(environment);
+        if ((current != null) && current.isVersion(matrix.getVersion())) {
+            return current;
         }
-        return proctorTests;
+        final TestMatrixDefinition testMatrixDefinition = matrix.getTestMatrixDefinition();
+        final TestSearchIndex index =
+                TestSearchIndex.build(
+                        matrix.getVersion(),
+                        testMatrixDefinition != null
+                                ? testMatrixDefinition.getTests()
+                                : Collections.emptyMap(),
+                        determineStoreFromEnvironment(environment),
+                        current);
+        searchIndexes.put(environment, index);
+        return index;
     }
 
     /**
@@ -230,32 +248,28 @@ public class TestSearchApiController extends AbstractController {
                 Sets.newHashSet(Splitter.on(",").split(favoriteTestsRaw));
 
         final Environment environment = determineEnvironmentFromParameter(branch);
-        final TestMatrixDefinition testMatrixDefinition =
-                getCurrentMatrix(environment).getTestMatrixDefinition();
-        final Map<String, TestDefinition> allTestMatrix =
-                testMatrixDefinition != null
-                        ? testMatrixDefinition.getTests()
-                        : Collections.emptyMap();
+        final TestSearchIndex searchIndex = getSearchIndex(environment);
 
         final List<String> queries = Arrays.asList(q.split("\\s+"));
-        final Map<String, TestDefinition> matchingTestMatrix =
-                Maps.filterEntries(
-                        allTestMatrix,
-                        e ->
-                                e != null
-                                        && matchesAllIgnoreCase(
-                                                e.getKey(), e.getValue(), filterType, queries)
-                                        && matchesFilterActive(
-                                                e.getValue().getAllocations(), filterActive));
+        final List<ProctorTest> matchingTests =
+                searchIndex.findCandidates(filterType.fields, queries).stream()
+                        .filter(
+                                t ->
+                                        matchesAllIgnoreCase(
+                                                        t.getName(),
+                                                        t.getDefinition(),
+                                                        filterType,
+                                                        queries)
+                                                && matchesFilterActive(
+                                                        t.getDefinition().getAllocations(),
+                                                        filterActive))
+                        .collect(toList());
 
         final List<ProctorTest> searchResult =
-                toProctorTests(matchingTestMatrix, determineStoreFromEnvironment(environment))
-                        .stream()
-                        .sorted(getComparator(sort, favoriteTestNames))
-                        .limit(limit)
-                        .collect(toList());
+                Ordering.from(getComparator(sort, favoriteTestNames))
+                        .leastOf(matchingTests, limit);
 
         return new JsonView(
-                new TestsResponse(searchResult, allTestMatrix.size(), searchResult.size()));
+                new TestsResponse(searchResult, searchIndex.size(), searchResult.size()));
     }
 }
@@ -0,0 +1,211 @@
+package com.indeed.proctor.webapp.controllers;
+
+import com.google.common.base.Strings;
+import com.indeed.proctor.common.model.Allocation;
+import com.indeed.proctor.common.model.TestBucket;
+import com.indeed.proctor.common.model.TestDefinition;
+import com.indeed.proctor.store.ProctorStore;
+import com.indeed.proctor.store.Revision;
+import com.indeed.proctor.store.StoreException;
+import com.indeed.proctor.webapp.controllers.TestSearchApiController.ProctorTest;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Trigram index of the searchable texts of tests in a test matrix, to find candidates for search
+ * queries without scanning and lowercasing all test definitions for each query.
+ *
+ * <p>The index only narrows down candidates, which still need to be matched by the filters of the
+ * search, so results are the same as when scanning all tests. Query terms shorter than a trigram
+ * can't be looked up and don't narrow down candidates.
+ *
+ * <p>Indexed tests also hold their last updated time. The index of a new matrix version reuses
+ * indexed tests with unchanged definitions, so that only histories of modified tests are read.
+ */
+final class TestSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    /** searchable texts of a test definition */
+    enum Field {
+        NAME,
+        DESCRIPTION,
+        RULE,
+        BUCKET,
+        BUCKET_DESCRIPTION,
+        TEST_TYPE,
+        META_TAG,
+        SALT,
+    }
+
+    @Nullable private final String matrixVersion;
+    /** tests by name, the position is the bit of the test in postings */
+    private final List<IndexedTest> tests;
+
+    private final Map<Field, Map<String, BitSet>> postings = new EnumMap<>(Field.class);
+
+    private TestSearchIndex(@Nullable final String matrixVersion, final List<IndexedTest> tests) {
+        this.matrixVersion = matrixVersion;
+        this.tests = tests;
+        for (final Field field : Field.values()) {
+            postings.put(field, new HashMap<>());
+        }
+        for (int i = 0; i < tests.size(); i++) {
+            for (final Map.Entry<Field, Set<String>> grams : tests.get(i).grams.entrySet()) {
+                final Map<String, BitSet> fieldPostings = postings.get(grams.getKey());
+                for (final String gram : grams.getValue()) {
+                    fieldPostings.computeIfAbsent(gram, g -> new BitSet(tests.size())).set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param previous index of a previous matrix version, to reuse unchanged tests from
+     * @return index of all tests in the matrix
+     */
+    static TestSearchIndex build(
+            @Nullable final String matrixVersion,
+            @Nonnull final Map<String, TestDefinition> matrix,
+            @Nonnull final ProctorStore store,
+            @Nullable final TestSearchIndex previous)
+            throws StoreException {
+        final Map<String, IndexedTest> previousTests = new HashMap<>();
+        if (previous != null) {
+            for (final IndexedTest test : previous.tests) {
+                previousTests.put(test.proctorTest.getName(), test);
+            }
+        }
+        final List<IndexedTest> tests = new ArrayList<>(matrix.size());
+        for (final Map.Entry<String, TestDefinition> e : new TreeMap<>(matrix).entrySet()) {
+            final IndexedTest previousTest = previousTests.get(e.getKey());
+            if ((previousTest != null)
+                    && previousTest.proctorTest.getDefinition().equals(e.getValue())) {
+                tests.add(previousTest);
+            } else {
+                tests.add(indexTest(e.getKey(), e.getValue(), store));
+            }
+        }
+        return new TestSearchIndex(matrixVersion, tests);
+    }
+
+    /** @return true if this is the index of the given version. unknown versions never match */
+    boolean isVersion(@Nullable final String version) {
+        return (matrixVersion != null) && matrixVersion.equals(version);
+    }
+
+    /** @return number of indexed tests */
+    int size() {
+        return tests.size();
+    }
+
+    /**
+     * @return tests which may contain all query terms in any of the fields, in order of test names
+     */
+    List<ProctorTest> findCandidates(
+            @Nonnull final Set<Field> fields, @Nonnull final Collection<String> queries) {
+        final BitSet candidates = new BitSet(tests.size());
+        candidates.set(0, tests.size());
+        for (final String query : queries) {
+            final String lowerQuery = query.toLowerCase();
+            if (lowerQuery.length() < GRAM_LENGTH) {
+                continue;
+            }
+            final BitSet matches = new BitSet(tests.size());
+            for (final Field field : fields) {
+                matches.or(lookup(field, lowerQuery));
+            }
+            candidates.and(matches);
+        }
+        final List<ProctorTest> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            result.add(tests.get(i).proctorTest);
+        }
+        return result;
+    }
+
+    /** @return tests containing all grams of the query in the field */
+    private BitSet lookup(final Field field, final String lowerQuery) {
+        final Map<String, BitSet> fieldPostings = postings.get(field);
+        BitSet matches = null;
+        for (final String gram : grams(lowerQuery)) {
+            final BitSet posting = fieldPostings.get(gram);
+            if (posting == null) {
+                return new BitSet();
+            }
+            if (matches == null) {
+                matches = (BitSet) posting.clone();
+            } else {
+                matches.and(posting);
+            }
+        }
+        return matches;
+    }
+
+    private static IndexedTest indexTest(
+            final String testName, final TestDefinition definition, final ProctorStore store)
+            throws StoreException {
+        final List<Revision> revisions = store.getHistory(testName, 0, 1);
+        final long updatedTime = revisions.isEmpty() ? 0 : revisions.get(0).getDate().getTime();
+
+        final Map<Field, Set<String>> grams = new EnumMap<>(Field.class);
+        addGrams(grams, Field.NAME, testName);
+        addGrams(grams, Field.DESCRIPTION, definition.getDescription());
+        addGrams(grams, Field.RULE, definition.getRule());
+        for (final Allocation allocation : nullToEmpty(definition.getAllocations())) {
+            addGrams(grams, Field.RULE, allocation.getRule());
+        }
+        for (final TestBucket bucket : nullToEmpty(definition.getBuckets())) {
+            addGrams(grams, Field.BUCKET, bucket.getName());
+            addGrams(grams, Field.BUCKET_DESCRIPTION, bucket.getDescription());
+        }
+        if (definition.getTestType() != null) {
+            addGrams(grams, Field.TEST_TYPE, definition.getTestType().toString());
+        }
+        for (final String metaTag : nullToEmpty(definition.getMetaTags())) {
+            addGrams(grams, Field.META_TAG, metaTag);
+        }
+        addGrams(grams, Field.SALT, definition.getSalt());
+
+        return new IndexedTest(new ProctorTest(testName, definition, updatedTime), grams);
+    }
+
+    private static void addGrams(
+            final Map<Field, Set<String>> grams, final Field field, @Nullable final String text) {
+        grams.computeIfAbsent(field, f -> new HashSet<>())
+                .addAll(grams(Strings.nullToEmpty(text).toLowerCase()));
+    }
+
+    private static Set<String> grams(final String lowerText) {
+        final Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerText.length(); i++) {
+            grams.add(lowerText.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static <T> Collection<T> nullToEmpty(@Nullable final Collection<T> values) {
+        return (values == null) ? Collections.emptyList() : values;
+    }
+
+    private static class IndexedTest {
+        private final ProctorTest proctorTest;
+        private final Map<Field, Set<String>> grams;
+
+        private IndexedTest(final ProctorTest proctorTest, final Map<Field, Set<String>> grams) {
+            this.proctorTest = proctorTest;
+            this.grams = grams;
+        }
+    }
+}
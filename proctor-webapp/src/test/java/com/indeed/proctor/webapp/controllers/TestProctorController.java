@@ -3,6 +3,7 @@ package com.indeed.proctor.webapp.controllers;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.indeed.proctor.common.PayloadSpecification;
+import com.indeed.proctor.common.ProctorSpecification;
 import com.indeed.proctor.common.ProctorUtils;
 import com.indeed.proctor.common.TestSpecification;
 import com.indeed.proctor.common.model.Allocation;
@@ -16,6 +17,7 @@ import com.indeed.proctor.common.model.TestMatrixArtifact;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.webapp.db.Environment;
 import com.indeed.proctor.webapp.model.AppVersion;
+import com.indeed.proctor.webapp.model.ProctorSpecifications;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.Test;
 
@@ -23,6 +25,8 @@ import java.util.Collections;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class TestProctorController {
@@ -103,4 +107,38 @@ public class TestProctorController {
         assertTrue(StringUtils.isEmpty(result.getError()));
         assertEquals(appVersion, result.getAppVersion());
     }
+
+    @Test
+    public void testMatrixCompatibilityCache() {
+        final MatrixCompatibilityCache cache = new MatrixCompatibilityCache();
+        final AppVersion appVersion = new AppVersion("sample application", "v1");
+        final ProctorSpecifications specifications =
+                new ProctorSpecifications(Collections.singleton(new ProctorSpecification()));
+        final TestMatrixArtifact artifact = constructArtifact();
+
+        final ProctorController.CompatibleSpecificationResult result =
+                cache.getResult(Environment.PRODUCTION, artifact, appVersion, specifications);
+        assertTrue(result.isCompatible());
+        assertSame(
+                result,
+                cache.getResult(Environment.PRODUCTION, artifact, appVersion, specifications));
+        // other environment
+        assertNotSame(
+                result, cache.getResult(Environment.QA, artifact, appVersion, specifications));
+        // changed specification of the client
+        assertNotSame(
+                result,
+                cache.getResult(
+                        Environment.PRODUCTION,
+                        artifact,
+                        appVersion,
+                        new ProctorSpecifications(
+                                Collections.singleton(new ProctorSpecification()))));
+        // new matrix version
+        final TestMatrixArtifact newArtifact = constructArtifact();
+        newArtifact.getAudit().setVersion("2");
+        assertNotSame(
+                result,
+                cache.getResult(Environment.PRODUCTION, newArtifact, appVersion, specifications));
+    }
 }
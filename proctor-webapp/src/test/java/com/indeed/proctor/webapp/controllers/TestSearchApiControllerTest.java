@@ -9,6 +9,7 @@ import com.indeed.proctor.common.model.TestMatrixVersion;
 import com.indeed.proctor.common.model.TestType;
 import com.indeed.proctor.store.ProctorStore;
 import com.indeed.proctor.store.StoreException;
+import com.indeed.proctor.webapp.controllers.TestSearchIndex.Field;
 import org.hamcrest.CoreMatchers;
 import org.junit.Test;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,6 +18,8 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 
 import static com.indeed.proctor.webapp.controllers.TestSearchApiController.ProctorTest;
@@ -102,4 +105,38 @@ public class TestSearchApiControllerTest {
                                 Arrays.asList("Travel", "Kyoto")))
                 .isFalse();
     }
+
+    @Test
+    public void testSearchIndex() throws Exception {
+        final ProctorStore store = createMockProctorStore();
+        final TestDefinition definition = new TestDefinition();
+        definition.setTestType(TestType.EMAIL_ADDRESS);
+        definition.setSalt("&kyotost");
+        definition.setDescription("Sightseeing in Kyoto");
+        final Map<String, TestDefinition> matrix =
+                ImmutableMap.<String, TestDefinition>builder()
+                        .putAll(store.getCurrentTestMatrix().getTestMatrixDefinition().getTests())
+                        .put("kyotost", definition)
+                        .build();
+
+        final TestSearchIndex index = TestSearchIndex.build("1", matrix, store, null);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.isVersion("1")).isTrue();
+        assertThat(index.findCandidates(EnumSet.allOf(Field.class), Arrays.asList("KYOTO")))
+                .extracting(ProctorTest::getName)
+                .containsExactly("kyotost");
+        assertThat(index.findCandidates(EnumSet.of(Field.NAME), Arrays.asList("kyoto", "sight")))
+                .isEmpty();
+        // short terms are not looked up
+        assertThat(index.findCandidates(EnumSet.of(Field.NAME), Arrays.asList("", "to")))
+                .extracting(ProctorTest::getName)
+                .containsExactly("kyotost", "traveltotokyotst");
+
+        // unchanged tests are reused by the index of the next version
+        final ProctorTest indexedTest =
+                index.findCandidates(EnumSet.of(Field.SALT), Arrays.asList("kyotost")).get(0);
+        final TestSearchIndex nextIndex = TestSearchIndex.build("2", matrix, store, index);
+        assertThat(nextIndex.findCandidates(EnumSet.of(Field.DESCRIPTION), Arrays.asList("sight")))
+                .containsExactly(indexedTest);
+    }
 }